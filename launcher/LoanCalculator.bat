@@ -0,0 +1,5 @@
+@echo off
+rem Starts LoanCalculator on the bundled runtime, mapping the AppCDS archive
+rem written by the build's training run. Arguments are passed on to Main.
+for %%I in ("%~dp0..") do set "APP_HOME=%%~fI"
+"%APP_HOME%\jre\bin\java" --add-modules jdk.incubator.vector -XX:SharedArchiveFile="%APP_HOME%\app\LoanCalculator.jsa" %JAVA_OPTS% -jar "%APP_HOME%\app\LoanCalculator.jar" %*
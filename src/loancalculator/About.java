@@ -14,12 +14,14 @@ public class About extends JDialog {
     private JButton uploadImageButton;
     private JButton removeImageButton;
     private final int IMAGE_SIZE = 120;
+    private final UserSession session;
     private final String username;
-    private final Database database;
+    private final WindowTasks tasks = new WindowTasks(this);
+    private java.util.concurrent.CompletableFuture<BufferedImage> uploadTask;
     
-    public About(String username) {
-        this.username = username;
-        this.database = new Database();
+    public About(UserSession session) {
+        this.session = session;
+        this.username = session.getUsername();
         initializeComponents();
         setupLayout();
         setupEventHandlers();
@@ -52,21 +54,42 @@ public class About extends JDialog {
     }
     
     private void setDefaultProfileImage() {
+        profileImageLabel.setText("Loading...");
+        profileImageLabel.setIcon(null);
+        removeImageButton.setEnabled(false);
+        
+        tasks.run(AsyncDatabase.supply(this::loadThumbnail), 
+                  this::showProfileImage, 
+                  error -> {
+                      System.err.println("Failed to set default profile image: " + error.getMessage());
+                      showProfileImage(null);
+                  });
+    }
+    
+    // Revalidates the cached thumbnail with a hash query; the picture itself is only
+    // fetched and rendered when the hash has no thumbnail yet
+    private BufferedImage loadThumbnail() throws IOException {
+        String hash;
         try {
-            BufferedImage image = database.getProfilePicture(username);
-            if (image != null) {
-                image = resizeImage(image, IMAGE_SIZE, IMAGE_SIZE);
-                image = createCircularImage(image);
-                profileImageLabel.setIcon(new ImageIcon(image));
-                profileImageLabel.setText(null);
-                removeImageButton.setEnabled(true);
-            } else {
-                profileImageLabel.setText("No Image");
-                profileImageLabel.setIcon(null);
-                removeImageButton.setEnabled(false);
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to set default profile image: " + e.getMessage());
+            hash = Database.getProfilePictureHash(username);
+            session.setProfilePictureHash(hash);
+        } catch (java.sql.SQLException e) {
+            System.err.println("Using cached profile picture: " + e.getMessage());
+            hash = session.getProfilePictureHash();
+            return hash == null ? null : ThumbnailCache.get(username, hash, IMAGE_SIZE);
+        }
+        return ThumbnailCache.load(username, hash, IMAGE_SIZE);
+    }
+    
+    private void showProfileImage(BufferedImage image) {
+        if (image != null) {
+            profileImageLabel.setIcon(new ImageIcon(image));
+            profileImageLabel.setText(null);
+            removeImageButton.setEnabled(true);
+        } else {
+            profileImageLabel.setText("No Image");
+            profileImageLabel.setIcon(null);
+            removeImageButton.setEnabled(false);
         }
     }
     
@@ -238,64 +261,66 @@ public class About extends JDialog {
     }
     
     private void uploadProfileImage() {
+        if (uploadTask != null) {
+            uploadTask.cancel(true);
+            finishUpload();
+            setDefaultProfileImage();
+            return;
+        }
+        
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
             "Image files", "jpg", "jpeg", "png", "gif"));
         
         if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try {
-                java.io.File selectedFile = fileChooser.getSelectedFile();
-                BufferedImage image = ImageIO.read(selectedFile);
-                
-                image = resizeImage(image, IMAGE_SIZE, IMAGE_SIZE);
-                image = createCircularImage(image);
-                
-                profileImageLabel.setIcon(new ImageIcon(image));
-                profileImageLabel.setText(null);
-                
-                database.saveProfilePicture(username, image);
-                removeImageButton.setEnabled(true);
-                
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Failed to load image: " + e.getMessage(), 
-                    "Image Error", JOptionPane.ERROR_MESSAGE);
-            }
+            java.io.File selectedFile = fileChooser.getSelectedFile();
+            int[] shownPercent = {-1};
+            
+            profileImageLabel.setIcon(null);
+            profileImageLabel.setText("Loading...");
+            uploadImageButton.setText("Cancel");
+            removeImageButton.setEnabled(false);
+            
+            // Decode, scale and encode all happen off the EDT; only progress hops back
+            uploadTask = tasks.run(AsyncDatabase.supply(() -> {
+                BufferedImage image = ProfileImages.readForThumbnail(selectedFile, IMAGE_SIZE, percent -> {
+                    if (percent != shownPercent[0]) {
+                        shownPercent[0] = percent;
+                        SwingUtilities.invokeLater(() -> {
+                            if (uploadTask != null) {
+                                profileImageLabel.setText("Loading " + percent + "%");
+                            }
+                        });
+                    }
+                });
+                if (image == null) {
+                    throw new IOException("Unsupported image format");
+                }
+                BufferedImage picture = ProfileImages.renderThumbnail(image, IMAGE_SIZE);
+                if (!Database.saveProfilePicture(username, picture)) {
+                    throw new IOException("Failed to save profile photo.");
+                }
+                ThumbnailCache.put(username, session.getProfilePictureHash(), IMAGE_SIZE, 
+                                   ProfileImages.renderThumbnail(picture, IMAGE_SIZE));
+                return picture;
+            }), picture -> {
+                finishUpload();
+                showProfileImage(picture);
+            }, error -> {
+                finishUpload();
+                setDefaultProfileImage();
+                if (!(error instanceof java.io.InterruptedIOException)) {
+                    JOptionPane.showMessageDialog(this, 
+                        "Failed to load image: " + error.getMessage(), 
+                        "Image Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
     
-    private BufferedImage resizeImage(BufferedImage originalImage, int width, int height) {
-        BufferedImage resizedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = resizedImage.createGraphics();
-        
-        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        
-        g2d.drawImage(originalImage, 0, 0, width, height, null);
-        g2d.dispose();
-        
-        return resizedImage;
-    }
-    
-    private BufferedImage createCircularImage(BufferedImage image) {
-        int size = Math.min(image.getWidth(), image.getHeight());
-        BufferedImage circularImage = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = circularImage.createGraphics();
-        
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        
-        g2d.setClip(new java.awt.geom.Ellipse2D.Float(0, 0, size, size));
-        
-        g2d.drawImage(image, 0, 0, size, size, null);
-        
-        g2d.setClip(null);
-        g2d.setColor(new Color(30, 144, 255));
-        g2d.setStroke(new BasicStroke(3));
-        g2d.drawOval(1, 1, size-3, size-3);
-        
-        g2d.dispose();
-        return circularImage;
+    private void finishUpload() {
+        uploadTask = null;
+        uploadImageButton.setText("Upload Photo");
     }
     
     private void removeProfileImage() {
@@ -304,11 +329,12 @@ public class About extends JDialog {
             "Remove Photo", JOptionPane.YES_NO_OPTION);
             
         if (choice == JOptionPane.YES_OPTION) {
-            database.removeProfilePicture(username);
-            setDefaultProfileImage();
-            JOptionPane.showMessageDialog(this,
-                "Profile photo removed successfully!",
-                "Photo Removed", JOptionPane.INFORMATION_MESSAGE);
+            tasks.run(AsyncDatabase.removeProfilePicture(username), removed -> {
+                setDefaultProfileImage();
+                JOptionPane.showMessageDialog(this,
+                    "Profile photo removed successfully!",
+                    "Photo Removed", JOptionPane.INFORMATION_MESSAGE);
+            }, error -> System.err.println("Error removing profile picture: " + error.getMessage()));
         }
     }
     
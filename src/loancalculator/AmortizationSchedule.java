@@ -0,0 +1,182 @@
+package loancalculator;
+
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Closed-form view of a level-payment amortization schedule. Every accessor
+ * answers in constant time from the annuity formulas, so looking up month 287
+ * costs the same as looking up month 1 and nothing is iterated.
+ *
+ * Periods are numbered 1..termMonths; balanceAfter(0) is the original principal.
+ */
+public final class AmortizationSchedule {
+    /**
+     * One period of the schedule as produced by {@link #stream()}.
+     */
+    public static final class Row {
+        public final int period;
+        public final double payment;
+        public final double interest;
+        public final double principal;
+        public final double balance;
+        
+        public Row(int period, double payment, double interest, double principal, double balance) {
+            this.period = period;
+            this.payment = payment;
+            this.interest = interest;
+            this.principal = principal;
+            this.balance = balance;
+        }
+    }
+    
+    private final double principal;
+    private final double annualRate;
+    private final double monthlyRate;
+    private final int termMonths;
+    private final double monthlyPayment;
+    
+    public AmortizationSchedule(double principal, double annualRate, int termMonths) {
+        if (principal <= 0 || annualRate < 0 || termMonths <= 0) {
+            throw new IllegalArgumentException("Principal and term must be positive and rate non-negative");
+        }
+        this.principal = principal;
+        this.annualRate = annualRate;
+        this.monthlyRate = annualRate / 12;
+        this.termMonths = termMonths;
+        this.monthlyPayment = LoanCalculatorUtils.monthlyPayment(principal, monthlyRate, termMonths);
+    }
+    
+    public double getPrincipal() {
+        return principal;
+    }
+    
+    public double getAnnualRate() {
+        return annualRate;
+    }
+    
+    public double getMonthlyRate() {
+        return monthlyRate;
+    }
+    
+    public int getTermMonths() {
+        return termMonths;
+    }
+    
+    public double getMonthlyPayment() {
+        return monthlyPayment;
+    }
+    
+    /**
+     * Outstanding balance once payment {@code period} has been made.
+     */
+    public double balanceAfter(int period) {
+        checkPeriod(period, 0);
+        if (period == termMonths) {
+            return 0;
+        }
+        double balance;
+        if (monthlyRate == 0) {
+            balance = principal - monthlyPayment * period;
+        } else {
+            double growth = Math.pow(1 + monthlyRate, period);
+            balance = principal * growth - monthlyPayment * (growth - 1) / monthlyRate;
+        }
+        return balance < 0 ? 0 : balance;
+    }
+    
+    public double interestPortion(int period) {
+        checkPeriod(period, 1);
+        return balanceAfter(period - 1) * monthlyRate;
+    }
+    
+    public double principalPortion(int period) {
+        checkPeriod(period, 1);
+        return monthlyPayment - interestPortion(period);
+    }
+    
+    /**
+     * Interest paid over periods 1..period inclusive.
+     */
+    public double cumulativeInterest(int period) {
+        checkPeriod(period, 0);
+        return monthlyPayment * period - cumulativePrincipal(period);
+    }
+    
+    public double cumulativePrincipal(int period) {
+        checkPeriod(period, 0);
+        return principal - balanceAfter(period);
+    }
+    
+    /**
+     * Interest paid over periods fromPeriod..toPeriod inclusive.
+     */
+    public double interestBetween(int fromPeriod, int toPeriod) {
+        checkRange(fromPeriod, toPeriod);
+        return cumulativeInterest(toPeriod) - cumulativeInterest(fromPeriod - 1);
+    }
+    
+    public double principalBetween(int fromPeriod, int toPeriod) {
+        checkRange(fromPeriod, toPeriod);
+        return balanceAfter(fromPeriod - 1) - balanceAfter(toPeriod);
+    }
+    
+    /**
+     * Interest paid during loan year {@code year} (1-based), clipped to the term.
+     */
+    public double interestInYear(int year) {
+        int from = (year - 1) * 12 + 1;
+        if (year < 1 || from > termMonths) {
+            throw new IllegalArgumentException("Year " + year + " is outside a " + termMonths + "-month term");
+        }
+        return interestBetween(from, Math.min(year * 12, termMonths));
+    }
+    
+    /**
+     * Allocation-free cursor over every period of the schedule.
+     */
+    public ScheduleCursor cursor() {
+        return new ScheduleCursor(this, 1, termMonths);
+    }
+    
+    public ScheduleCursor cursor(int fromPeriod, int toPeriod) {
+        return new ScheduleCursor(this, fromPeriod, toPeriod);
+    }
+    
+    /**
+     * Lazily generated rows in period order. Memory use is constant, and a
+     * parallel stream splits the term by period range.
+     */
+    public Stream<Row> stream() {
+        return StreamSupport.stream(new ScheduleSpliterators.Rows(cursor()), false);
+    }
+    
+    public DoubleStream interestStream() {
+        return columnStream(ScheduleSpliterators.INTEREST);
+    }
+    
+    public DoubleStream principalStream() {
+        return columnStream(ScheduleSpliterators.PRINCIPAL);
+    }
+    
+    public DoubleStream balanceStream() {
+        return columnStream(ScheduleSpliterators.BALANCE);
+    }
+    
+    private DoubleStream columnStream(int column) {
+        return StreamSupport.doubleStream(new ScheduleSpliterators.Column(cursor(), column), false);
+    }
+    
+    private void checkPeriod(int period, int lowest) {
+        if (period < lowest || period > termMonths) {
+            throw new IllegalArgumentException("Period " + period + " is outside " + lowest + ".." + termMonths);
+        }
+    }
+    
+    private void checkRange(int fromPeriod, int toPeriod) {
+        if (fromPeriod < 1 || toPeriod > termMonths || fromPeriod > toPeriod) {
+            throw new IllegalArgumentException("Invalid period range " + fromPeriod + ".." + toPeriod);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package loancalculator;
+
+import javax.swing.table.AbstractTableModel;
+import java.text.DecimalFormat;
+
+/**
+ * Read-only table model that computes amortization rows on demand from an
+ * {@link AmortizationSchedule}. JTable only asks for the rows in its viewport,
+ * so a 40-year or weekly schedule costs the same to open as a short one.
+ * Recently formatted rows are kept in a small direct-mapped cache because
+ * Swing asks for every cell of a row separately and repaints often.
+ */
+public class AmortizationTableModel extends AbstractTableModel {
+    private static final String[] COLUMN_NAMES = {"Payment #", "Payment Amount", "Principal", 
+                                                  "Interest", "Remaining Balance"};
+    private static final int ROW_CACHE_SIZE = 128;
+    
+    private final AmortizationSchedule schedule;
+    private final DecimalFormat currencyFormat = new DecimalFormat("$#,##0.00");
+    private final String formattedPayment;
+    private final int[] cachedRowIndex = new int[ROW_CACHE_SIZE];
+    private final Object[][] cachedRows = new Object[ROW_CACHE_SIZE][];
+    
+    public AmortizationTableModel(AmortizationSchedule schedule) {
+        this.schedule = schedule;
+        this.formattedPayment = currencyFormat.format(schedule.getMonthlyPayment());
+        java.util.Arrays.fill(cachedRowIndex, -1);
+    }
+    
+    public AmortizationSchedule getSchedule() {
+        return schedule;
+    }
+    
+    @Override
+    public int getRowCount() {
+        return schedule.getTermMonths();
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 0 ? Integer.class : String.class;
+    }
+    
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        int slot = row & (ROW_CACHE_SIZE - 1);
+        Object[] cached = cachedRows[slot];
+        if (cached == null || cachedRowIndex[slot] != row) {
+            cached = formatRow(row + 1);
+            cachedRows[slot] = cached;
+            cachedRowIndex[slot] = row;
+        }
+        return cached[column];
+    }
+    
+    private Object[] formatRow(int period) {
+        double interestPayment = schedule.interestPortion(period);
+        double principalPayment = schedule.getMonthlyPayment() - interestPayment;
+        return new Object[] {
+            period,
+            formattedPayment,
+            currencyFormat.format(principalPayment),
+            currencyFormat.format(interestPayment),
+            currencyFormat.format(schedule.balanceAfter(period))
+        };
+    }
+}
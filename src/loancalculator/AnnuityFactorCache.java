@@ -0,0 +1,120 @@
+package loancalculator;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of (1 + monthlyRate)^termMonths keyed exactly on the rate bits
+ * and the term. Quotes cluster on a few rate steps and standard terms, so most
+ * lookups skip Math.pow entirely.
+ *
+ * The table is two-way set associative: a key may live in either slot of its
+ * pair, and a miss on a full pair evicts the slot picked by the key's hash.
+ * Entries are immutable, so readers never see a half-written slot and no
+ * locking is needed.
+ */
+public final class AnnuityFactorCache {
+    private static final class Entry {
+        final long rateBits;
+        final int termMonths;
+        final double growth;
+        
+        Entry(long rateBits, int termMonths, double growth) {
+            this.rateBits = rateBits;
+            this.termMonths = termMonths;
+            this.growth = growth;
+        }
+    }
+    
+    private final Entry[] table;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    public AnnuityFactorCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        int size = Math.max(Integer.highestOneBit(capacity - 1) << 1, 2);
+        this.table = new Entry[size];
+        this.mask = table.length - 1;
+    }
+    
+    /**
+     * Returns (1 + monthlyRate)^termMonths, computing and caching it on a miss.
+     */
+    public double growthFactor(double monthlyRate, int termMonths) {
+        long rateBits = Double.doubleToRawLongBits(monthlyRate);
+        int hash = hash(rateBits, termMonths);
+        int first = hash & mask & ~1;
+        Entry a = table[first];
+        if (a != null && a.rateBits == rateBits && a.termMonths == termMonths) {
+            hits.increment();
+            return a.growth;
+        }
+        Entry b = table[first + 1];
+        if (b != null && b.rateBits == rateBits && b.termMonths == termMonths) {
+            hits.increment();
+            return b.growth;
+        }
+        
+        misses.increment();
+        double growth = Math.pow(1 + monthlyRate, termMonths);
+        int slot;
+        if (a == null) {
+            slot = first;
+        } else if (b == null) {
+            slot = first + 1;
+        } else {
+            slot = first + ((hash >>> 16) & 1);
+            evictions.increment();
+        }
+        table[slot] = new Entry(rateBits, termMonths, growth);
+        return growth;
+    }
+    
+    private static int hash(long rateBits, int termMonths) {
+        long h = (rateBits ^ (rateBits >>> 32)) * 0x9E3779B97F4A7C15L + termMonths * 0xC2B2AE3DL;
+        h ^= h >>> 31;
+        h *= 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 29));
+    }
+    
+    /**
+     * Drops every entry and zeroes the hit, miss and eviction counters.
+     */
+    public void clear() {
+        java.util.Arrays.fill(table, null);
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+    
+    public int capacity() {
+        return table.length;
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    public long getEvictions() {
+        return evictions.sum();
+    }
+    
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("AnnuityFactorCache[capacity=%d, hits=%d, misses=%d, evictions=%d]",
+                             capacity(), getHits(), getMisses(), getEvictions());
+    }
+}
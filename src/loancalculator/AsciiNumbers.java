@@ -0,0 +1,206 @@
+package loancalculator;
+
+/**
+ * Exception-free number parsing and fixed-point formatting over raw ASCII
+ * bytes, used by the headless batch and network front ends where String
+ * allocation and NumberFormatException would dominate the cost of pricing.
+ */
+final class AsciiNumbers {
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    
+    static final int NOT_AN_INT = Integer.MIN_VALUE;
+    
+    private AsciiNumbers() {
+    }
+    
+    /**
+     * Parses {@code [+-]digits[.digits]} (surrounding spaces allowed) and
+     * returns NaN for anything else. Values with at most 15 significant digits
+     * take an exact, correctly rounded fast path; longer ones fall back to
+     * Double.parseDouble on already validated text, which cannot throw.
+     */
+    static double parseDouble(byte[] bytes, int from, int to) {
+        while (from < to && bytes[from] == ' ') from++;
+        while (to > from && bytes[to - 1] == ' ') to--;
+        if (from == to) {
+            return Double.NaN;
+        }
+        
+        int i = from;
+        boolean negative = false;
+        if (bytes[i] == '-' || bytes[i] == '+') {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        boolean overflow = false;
+        
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (seenPoint) fractionDigits++;
+                } else {
+                    overflow = true;
+                }
+                digits++;
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        
+        if (overflow || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(new String(bytes, from, to - from, java.nio.charset.StandardCharsets.US_ASCII));
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+    
+    /**
+     * Parses a plain decimal int, returning {@link #NOT_AN_INT} on bad input
+     * or overflow.
+     */
+    static int parseInt(byte[] bytes, int from, int to) {
+        while (from < to && bytes[from] == ' ') from++;
+        while (to > from && bytes[to - 1] == ' ') to--;
+        if (from == to || to - from > 10) {
+            return NOT_AN_INT;
+        }
+        long value = 0;
+        int i = from;
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+') {
+            i++;
+            if (i == to) return NOT_AN_INT;
+        }
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b < '0' || b > '9') {
+                return NOT_AN_INT;
+            }
+            value = value * 10 + (b - '0');
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE || value <= NOT_AN_INT ? NOT_AN_INT : (int) value;
+    }
+    
+    /**
+     * Growable byte buffer with allocation-free numeric appends.
+     */
+    static final class ByteSink {
+        private byte[] bytes;
+        private int length;
+        
+        ByteSink(int capacity) {
+            bytes = new byte[Math.max(capacity, 16)];
+        }
+        
+        byte[] array() {
+            return bytes;
+        }
+        
+        int length() {
+            return length;
+        }
+        
+        void reset() {
+            length = 0;
+        }
+        
+        ByteSink append(byte b) {
+            ensure(1);
+            bytes[length++] = b;
+            return this;
+        }
+        
+        ByteSink append(char c) {
+            return append((byte) c);
+        }
+        
+        ByteSink append(byte[] src, int from, int to) {
+            ensure(to - from);
+            System.arraycopy(src, from, bytes, length, to - from);
+            length += to - from;
+            return this;
+        }
+        
+        ByteSink append(String ascii) {
+            int n = ascii.length();
+            ensure(n);
+            for (int i = 0; i < n; i++) {
+                bytes[length++] = (byte) ascii.charAt(i);
+            }
+            return this;
+        }
+        
+        ByteSink append(long value) {
+            if (value < 0) {
+                if (value == Long.MIN_VALUE) {
+                    return append(Long.toString(value));
+                }
+                append('-');
+                value = -value;
+            }
+            ensure(20);
+            int start = length;
+            do {
+                bytes[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            for (int i = start, j = length - 1; i < j; i++, j--) {
+                byte t = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = t;
+            }
+            return this;
+        }
+        
+        /**
+         * Appends {@code value} rounded half-up to {@code decimals} places.
+         * Non-finite or very large values fall back to Double.toString.
+         */
+        ByteSink appendFixed(double value, int decimals) {
+            double scale = POWERS_OF_TEN[decimals];
+            double scaled = Math.abs(value) * scale;
+            if (!(scaled < 1e17)) {
+                return append(Double.toString(value));
+            }
+            long units = Math.round(scaled);
+            if (value < 0 && units != 0) {
+                append('-');
+            }
+            long factor = (long) scale;
+            append(units / factor);
+            if (decimals > 0) {
+                append('.');
+                long fraction = units % factor;
+                ensure(decimals);
+                for (int i = length + decimals - 1; i >= length; i--) {
+                    bytes[i] = (byte) ('0' + fraction % 10);
+                    fraction /= 10;
+                }
+                length += decimals;
+            }
+            return this;
+        }
+        
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = java.util.Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
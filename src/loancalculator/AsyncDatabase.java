@@ -0,0 +1,69 @@
+package loancalculator;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Asynchronous facade over {@link Database} for the Swing windows. Every call
+ * runs on its own virtual thread and returns a {@link CompletableFuture}, so
+ * nothing here ever blocks the event dispatch thread; pair it with
+ * {@link WindowTasks} to get results back on the EDT. Calls made while
+ * startup is still migrating the schema wait for it. Cancelling a returned
+ * future interrupts the thread running it, which releases a caller still
+ * waiting for a pooled connection.
+ */
+public final class AsyncDatabase {
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    
+    private AsyncDatabase() {
+    }
+    
+    public static <T> CompletableFuture<T> supply(Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = EXECUTOR.submit(() -> {
+            try {
+                Database.awaitInitialization();
+                result.complete(call.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+    
+    public static CompletableFuture<UserSession> authenticateUser(String username, String password) {
+        return supply(() -> Database.authenticateUser(username, password));
+    }
+    
+    public static CompletableFuture<Boolean> registerUser(String username, String password, String email, String fullName) {
+        return supply(() -> Database.registerUser(username, password, email, fullName));
+    }
+    
+    public static CompletableFuture<BufferedImage> getProfilePicture(String username) {
+        return supply(() -> Database.getProfilePicture(username));
+    }
+    
+    public static CompletableFuture<Boolean> saveProfilePicture(String username, BufferedImage image) {
+        return supply(() -> Database.saveProfilePicture(username, image));
+    }
+    
+    public static CompletableFuture<Boolean> removeProfilePicture(String username) {
+        return supply(() -> Database.removeProfilePicture(username));
+    }
+    
+    public static CompletableFuture<Boolean> saveCalculation(int userId, double principal, double annualRate, 
+                                                             int termMonths, double monthlyPayment, 
+                                                             double totalPayment, double totalInterest) {
+        return Database.saveCalculationAsync(userId, principal, annualRate, termMonths, 
+                                             monthlyPayment, totalPayment, totalInterest);
+    }
+}
@@ -0,0 +1,300 @@
+package loancalculator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless CSV repricing: {@code java -jar LoanCalculator.jar batch in.csv out.csv [rejects.csv]}.
+ *
+ * Input rows are {@code principal,annual_rate_percent,term_months}; a leading
+ * header line is skipped. The file is read through a FileChannel in large
+ * blocks cut at line boundaries, each block is parsed, priced and formatted
+ * on a worker, and the formatted blocks are written back in input order. At
+ * most a fixed window of blocks is in flight, so memory stays bounded whatever
+ * the file size. Rows that fail to parse or validate go to the reject file
+ * with their line number and reason.
+ */
+public final class BatchPricer {
+    private static final int BLOCK_BYTES = 1 << 20;
+    private static final byte[] OUTPUT_HEADER =
+        "principal,annual_rate_percent,term_months,monthly_payment,total_payment,total_interest,effective_rate\n"
+            .getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+    private static final byte[] REJECT_HEADER =
+        "line,reason,row\n".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+    
+    private final int parallelism;
+    
+    public static class Summary {
+        public final long rows;
+        public final long rejected;
+        public final long elapsedNanos;
+        
+        Summary(long rows, long rejected, long elapsedNanos) {
+            this.rows = rows;
+            this.rejected = rejected;
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("Priced %,d rows (%,d rejected) in %.2f s, %,.0f rows/s",
+                                 rows, rejected, seconds, seconds == 0 ? 0 : (rows + rejected) / seconds);
+        }
+    }
+    
+    public BatchPricer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    public BatchPricer(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+    
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java -jar LoanCalculator.jar batch <input.csv> <output.csv> [rejects.csv]");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        Path rejects = args.length == 3 ? Paths.get(args[2]) : Paths.get(args[1] + ".rejects.csv");
+        
+        try {
+            Summary summary = new BatchPricer().run(input, output, rejects);
+            System.out.println(summary);
+            System.exit(summary.rejected == 0 ? 0 : 1);
+        } catch (IOException e) {
+            System.err.println("Batch pricing failed: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+    
+    public Summary run(Path input, Path output, Path rejects) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        long rejected = 0;
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "batch-pricer");
+            t.setDaemon(true);
+            return t;
+        });
+        
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = openForWrite(output);
+             FileChannel rej = openForWrite(rejects)) {
+            writeFully(out, OUTPUT_HEADER, OUTPUT_HEADER.length);
+            writeFully(rej, REJECT_HEADER, REJECT_HEADER.length);
+            
+            ArrayDeque<Future<Block>> pending = new ArrayDeque<>();
+            int window = parallelism * 2;
+            ByteBuffer buffer = ByteBuffer.allocate(BLOCK_BYTES);
+            long nextLine = 1;
+            boolean eof = false;
+            
+            while (!eof) {
+                eof = in.read(buffer) < 0;
+                byte[] data = buffer.array();
+                int filled = buffer.position();
+                int cut = eof ? filled : lastNewline(data, filled) + 1;
+                
+                if (cut == 0 && !eof) {
+                    if (filled == buffer.capacity()) {
+                        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                        buffer.flip();
+                        larger.put(buffer);
+                        buffer = larger;
+                    }
+                    continue;
+                }
+                
+                if (cut > 0) {
+                    byte[] lines = Arrays.copyOf(data, cut);
+                    int lineCount = countLines(lines, eof);
+                    Block block = new Block(lines, lineCount, nextLine);
+                    nextLine += lineCount;
+                    pending.add(workers.submit(block::process));
+                }
+                System.arraycopy(data, cut, data, 0, filled - cut);
+                buffer.position(filled - cut);
+                
+                while (pending.size() >= window || (eof && !pending.isEmpty())) {
+                    Block done = await(pending.poll());
+                    writeFully(out, done.output.array(), done.output.length());
+                    writeFully(rej, done.rejects.array(), done.rejects.length());
+                    rows += done.rows;
+                    rejected += done.rejected;
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return new Summary(rows, rejected, System.nanoTime() - start);
+    }
+    
+    private static FileChannel openForWrite(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                StandardOpenOption.WRITE);
+    }
+    
+    private static void writeFully(FileChannel channel, byte[] bytes, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    private static Block await(Future<Block> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while pricing", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Pricing worker failed", e.getCause());
+        }
+    }
+    
+    private static int lastNewline(byte[] data, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (data[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static int countLines(byte[] data, boolean eof) {
+        int lines = 0;
+        for (byte b : data) {
+            if (b == '\n') lines++;
+        }
+        if (eof && data.length > 0 && data[data.length - 1] != '\n') {
+            lines++;
+        }
+        return lines;
+    }
+    
+    static boolean isHeader(byte first) {
+        return !(first >= '0' && first <= '9') && first != '.' && first != '-' && first != '+' && first != ' ';
+    }
+    
+    /**
+     * Parses one {@code principal,annual_rate_percent,term_months} row into the
+     * next free slot of {@code batch}. Returns null on success, otherwise the
+     * reject reason. {@code ratePercent} may be null.
+     */
+    static String parseRow(byte[] bytes, int from, int to, LoanCalculatorUtils.LoanBatch batch,
+                           double[] ratePercent) {
+        int firstComma = indexOf(bytes, from, to, (byte) ',');
+        int secondComma = firstComma < 0 ? -1 : indexOf(bytes, firstComma + 1, to, (byte) ',');
+        if (secondComma < 0 || indexOf(bytes, secondComma + 1, to, (byte) ',') >= 0) {
+            return "expected 3 fields";
+        }
+        double principal = AsciiNumbers.parseDouble(bytes, from, firstComma);
+        double rate = AsciiNumbers.parseDouble(bytes, firstComma + 1, secondComma);
+        int term = AsciiNumbers.parseInt(bytes, secondComma + 1, to);
+        
+        if (!(principal > 0) || Double.isInfinite(principal)) {
+            return "invalid principal";
+        }
+        if (!(rate >= 0 && rate <= 100)) {
+            return "invalid rate";
+        }
+        if (term <= 0 || term > 1200) {
+            return "invalid term";
+        }
+        
+        int i = batch.size++;
+        batch.principal[i] = principal;
+        batch.annualRate[i] = rate / 100;
+        batch.termMonths[i] = term;
+        if (ratePercent != null) {
+            ratePercent[i] = rate;
+        }
+        return null;
+    }
+    
+    private static int indexOf(byte[] bytes, int from, int to, byte target) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == target) return i;
+        }
+        return -1;
+    }
+    
+    /**
+     * One block of complete input lines together with its formatted output.
+     */
+    private static final class Block {
+        private final byte[] input;
+        private final int lineCount;
+        private final long firstLine;
+        private AsciiNumbers.ByteSink output;
+        private AsciiNumbers.ByteSink rejects;
+        private int rows;
+        private int rejected;
+        
+        Block(byte[] input, int lineCount, long firstLine) {
+            this.input = input;
+            this.lineCount = lineCount;
+            this.firstLine = firstLine;
+        }
+        
+        Block process() {
+            LoanCalculatorUtils.LoanBatch batch = new LoanCalculatorUtils.LoanBatch(lineCount);
+            double[] ratePercent = new double[batch.capacity()];
+            rejects = new AsciiNumbers.ByteSink(256);
+            
+            long line = firstLine;
+            int lineStart = 0;
+            while (lineStart < input.length) {
+                int lineEnd = lineStart;
+                while (lineEnd < input.length && input[lineEnd] != '\n') lineEnd++;
+                int contentEnd = lineEnd > lineStart && input[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                
+                if (contentEnd > lineStart && !(line == 1 && isHeader(input[lineStart]))) {
+                    String reason = parseRow(input, lineStart, contentEnd, batch, ratePercent);
+                    if (reason != null) {
+                        rejected++;
+                        rejects.append(line).append(',').append(reason).append(",\"");
+                        appendEscaped(rejects, input, lineStart, contentEnd);
+                        rejects.append('"').append('\n');
+                    }
+                }
+                lineStart = lineEnd + 1;
+                line++;
+            }
+            
+            LoanCalculatorUtils.calculateLoans(batch, 0, batch.size);
+            rows = batch.size;
+            output = new AsciiNumbers.ByteSink(batch.size * 80);
+            for (int i = 0; i < batch.size; i++) {
+                output.appendFixed(batch.principal[i], 2).append(',')
+                      .appendFixed(ratePercent[i], 6).append(',')
+                      .append(batch.termMonths[i]).append(',')
+                      .appendFixed(batch.monthlyPayment[i], 2).append(',')
+                      .appendFixed(batch.totalPayment[i], 2).append(',')
+                      .appendFixed(batch.totalInterest[i], 2).append(',')
+                      .appendFixed(batch.effectiveRate[i], 6).append('\n');
+            }
+            return this;
+        }
+        
+        private static void appendEscaped(AsciiNumbers.ByteSink sink, byte[] bytes, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (bytes[i] == '"') sink.append('"');
+                sink.append(bytes[i]);
+            }
+        }
+    }
+}
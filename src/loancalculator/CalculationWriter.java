@@ -0,0 +1,244 @@
+package loancalculator;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind queue for loan calculations. Saves are queued and a single
+ * writer thread inserts them with JDBC batches, flushing when a batch is full
+ * or when the oldest queued save has waited for the flush interval. Each save
+ * returns a future that completes once its row is committed (true) or could
+ * not be written (false).
+ *
+ * The queue is bounded: when it is full, {@link #submit} blocks for up to the
+ * enqueue timeout and then fails the save, so producers slow down instead of
+ * growing memory without limit. {@link #close} stops new saves and flushes
+ * everything already queued.
+ */
+public final class CalculationWriter implements AutoCloseable {
+    private static final long IDLE_POLL_MILLIS = 100;
+    
+    private static final String INSERT_SQL = """
+        INSERT INTO loan_calculations 
+        (user_id, principal, annual_rate, term_months, monthly_payment, total_payment, total_interest) 
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+    """;
+    
+    private final BlockingQueue<PendingSave> queue;
+    private final int maxBatch;
+    private final long flushIntervalNanos;
+    private final long enqueueTimeoutNanos;
+    private final Thread writer;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile boolean closed;
+    
+    public CalculationWriter(int capacity, int maxBatch, long flushIntervalMillis, long enqueueTimeoutMillis) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.enqueueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(enqueueTimeoutMillis);
+        writer = new Thread(this::drainLoop, "calculation-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    public CompletableFuture<Boolean> submit(int userId, double principal, double annualRate, int termMonths,
+                                             double monthlyPayment, double totalPayment, double totalInterest) {
+        PendingSave save = new PendingSave(userId, principal, annualRate, termMonths,
+                                           monthlyPayment, totalPayment, totalInterest);
+        if (closed) {
+            save.result.completeExceptionally(new RejectedExecutionException("Calculation writer is closed"));
+            return save.result;
+        }
+        try {
+            if (!queue.offer(save, enqueueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                failed.increment();
+                save.result.completeExceptionally(new RejectedExecutionException("Save queue is full"));
+            } else if (closed && queue.remove(save)) {
+                // Raced with close(): the writer may already have made its last pass
+                save.result.completeExceptionally(new RejectedExecutionException("Calculation writer is closed"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            save.result.completeExceptionally(e);
+        }
+        return save.result;
+    }
+    
+    public int getQueued() {
+        return queue.size();
+    }
+    
+    public long getWritten() {
+        return written.sum();
+    }
+    
+    public long getFailed() {
+        return failed.sum();
+    }
+    
+    public long getBatches() {
+        return batches.sum();
+    }
+    
+    /**
+     * Stops accepting saves and waits up to {@code timeoutMillis} for the
+     * queue to be flushed. Saves still queued after that complete with false.
+     */
+    public void close(long timeoutMillis) {
+        closed = true;
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingSave> unsaved = new ArrayList<>();
+        queue.drainTo(unsaved);
+        if (!unsaved.isEmpty()) {
+            System.err.println("Calculation writer closed with " + unsaved.size() + " unsaved calculations");
+            complete(unsaved, false);
+        }
+    }
+    
+    @Override
+    public void close() {
+        close(10_000);
+    }
+    
+    private void drainLoop() {
+        List<PendingSave> batch = new ArrayList<>(maxBatch);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingSave first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Wait out the flush interval for company unless the batch fills first
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < maxBatch && !closed) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingSave next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Not expected on this thread; flush what was collected and keep going
+            }
+            queue.drainTo(batch, maxBatch - batch.size());
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    private void flush(List<PendingSave> batch) {
+        try (Connection conn = Database.getConnection()) {
+            try {
+                conn.setAutoCommit(false);
+                try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+                    for (PendingSave save : batch) {
+                        save.bind(pstmt);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                conn.commit();
+                batches.increment();
+                complete(batch, true);
+                return;
+            } catch (BatchUpdateException e) {
+                conn.rollback();
+                System.err.println("Batch save failed, retrying rows individually: " + e.getMessage());
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            
+            // One bad row must not sink the rest of the batch
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+                for (PendingSave save : batch) {
+                    try {
+                        save.bind(pstmt);
+                        complete(save, pstmt.executeUpdate() > 0);
+                    } catch (SQLException e) {
+                        System.err.println("Failed to save calculation: " + e.getMessage());
+                        complete(save, false);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to save calculations: " + e.getMessage());
+            for (PendingSave save : batch) {
+                complete(save, false);
+            }
+        }
+    }
+    
+    private void complete(List<PendingSave> batch, boolean saved) {
+        for (PendingSave save : batch) {
+            complete(save, saved);
+        }
+    }
+    
+    private void complete(PendingSave save, boolean saved) {
+        if (!save.result.complete(saved)) {
+            return;
+        }
+        if (saved) {
+            written.increment();
+        } else {
+            failed.increment();
+        }
+    }
+    
+    private static final class PendingSave {
+        final int userId;
+        final double principal;
+        final double annualRate;
+        final int termMonths;
+        final double monthlyPayment;
+        final double totalPayment;
+        final double totalInterest;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        
+        PendingSave(int userId, double principal, double annualRate, int termMonths,
+                    double monthlyPayment, double totalPayment, double totalInterest) {
+            this.userId = userId;
+            this.principal = principal;
+            this.annualRate = annualRate;
+            this.termMonths = termMonths;
+            this.monthlyPayment = monthlyPayment;
+            this.totalPayment = totalPayment;
+            this.totalInterest = totalInterest;
+        }
+        
+        void bind(PreparedStatement pstmt) throws SQLException {
+            pstmt.setInt(1, userId);
+            pstmt.setDouble(2, principal);
+            pstmt.setDouble(3, annualRate);
+            pstmt.setInt(4, termMonths);
+            pstmt.setDouble(5, monthlyPayment);
+            pstmt.setDouble(6, totalPayment);
+            pstmt.setDouble(7, totalInterest);
+        }
+    }
+}
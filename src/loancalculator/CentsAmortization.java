@@ -0,0 +1,203 @@
+package loancalculator;
+
+/**
+ * Exact amortization in integer cents. Interest is rounded to the cent every
+ * period (round half to even), the level payment is rounded to the nearest
+ * cent, and the final payment absorbs whatever is left so the balance closes
+ * at exactly zero. Everything runs on {@code long} arithmetic with no
+ * allocation, so totals reconcile with a servicing system cent for cent.
+ *
+ * The annual rate is fixed to {@link #RATE_SCALE} (1e-8) before use, so the
+ * per-period interest is the exact rational balance * rate / 12 rounded once.
+ */
+public final class CentsAmortization {
+    public static final long RATE_SCALE = 100_000_000L;
+    private static final long MONTHLY_DIVISOR = 12 * RATE_SCALE;
+    
+    private CentsAmortization() {
+    }
+    
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+    
+    public static long scaleRate(double annualRate) {
+        if (annualRate < 0 || annualRate > 10) {
+            throw new IllegalArgumentException("Annual rate out of range: " + annualRate);
+        }
+        return Math.round(annualRate * RATE_SCALE);
+    }
+    
+    /**
+     * Level payment in cents, rounded to the nearest cent from the annuity formula.
+     */
+    public static long paymentCents(long principalCents, long scaledAnnualRate, int termMonths) {
+        double monthlyRate = (double) scaledAnnualRate / MONTHLY_DIVISOR;
+        double payment = LoanCalculatorUtils.monthlyPaymentUncached(principalCents, monthlyRate, termMonths);
+        return Math.round(payment);
+    }
+    
+    /**
+     * One period's interest: balance * scaledAnnualRate / (12 * RATE_SCALE),
+     * rounded half to even. When balance * rate would overflow a long the
+     * balance is split around the divisor, which keeps the result exact for
+     * balances up to $10 trillion.
+     */
+    public static long interestCents(long balanceCents, long scaledAnnualRate) {
+        if (fitsInLong(balanceCents, scaledAnnualRate)) {
+            return roundedQuotient(balanceCents * scaledAnnualRate);
+        }
+        long high = balanceCents / MONTHLY_DIVISOR;
+        long low = balanceCents - high * MONTHLY_DIVISOR;
+        long lowProduct = low * scaledAnnualRate;
+        long lowQuotient = lowProduct / MONTHLY_DIVISOR;
+        return roundHalfEven(high * scaledAnnualRate + lowQuotient, lowProduct - lowQuotient * MONTHLY_DIVISOR);
+    }
+    
+    private static boolean fitsInLong(long balanceCents, long scaledAnnualRate) {
+        return balanceCents >= 0 && Math.multiplyHigh(balanceCents, scaledAnnualRate) == 0
+            && balanceCents * scaledAnnualRate >= 0;
+    }
+    
+    // Balances up to twice the principal are checked for overflow once per loan,
+    // so ordinary periods skip the per-call multiplyHigh test.
+    private static long fastPathLimit(long principalCents, long scaledAnnualRate) {
+        long limit = principalCents * 2;
+        return limit > 0 && fitsInLong(limit, scaledAnnualRate) ? limit : -1;
+    }
+    
+    // Division by a constant, which the JIT turns into a multiply-high
+    private static long roundedQuotient(long product) {
+        long quotient = product / MONTHLY_DIVISOR;
+        return roundHalfEven(quotient, product - quotient * MONTHLY_DIVISOR);
+    }
+    
+    // Rounds up when twice the remainder plus the quotient's parity exceeds the divisor (the
+    // remainder is past half, or exactly half with an odd quotient). Written without a branch:
+    // whether a remainder is past half is a coin flip, and a mispredicted jump every period
+    // cost more than the rest of the loop
+    private static long roundHalfEven(long quotient, long remainder) {
+        return quotient + ((MONTHLY_DIVISOR - remainder * 2 - (quotient & 1)) >>> 63);
+    }
+    
+    /**
+     * Runs the full schedule and returns the total interest in cents. The last
+     * payment is the remaining balance plus its interest.
+     */
+    public static long totalInterestCents(long principalCents, long scaledAnnualRate, int termMonths) {
+        long payment = paymentCents(principalCents, scaledAnnualRate, termMonths);
+        return totalInterestFrom(principalCents, 0, 1, payment, fastPathLimit(principalCents, scaledAnnualRate),
+                                 scaledAnnualRate, termMonths);
+    }
+    
+    /**
+     * Batch form of {@link #totalInterestCents(long, long, int)} for loans
+     * {@code [from, to)}. Each period's interest depends on the previous
+     * balance, so one schedule is a chain of dependent multiply-divides; four
+     * loans are run side by side so those chains overlap in the CPU.
+     */
+    public static void totalInterestCents(long[] principalCents, long[] scaledAnnualRates, int[] termMonths,
+                                          long[] totalInterestCents, int from, int to) {
+        int i = from;
+        for (; i + 4 <= to; i += 4) {
+            totalInterestCents4(principalCents, scaledAnnualRates, termMonths, totalInterestCents, i);
+        }
+        for (; i < to; i++) {
+            totalInterestCents[i] = totalInterestCents(principalCents[i], scaledAnnualRates[i], termMonths[i]);
+        }
+    }
+    
+    // Runs four schedules in lockstep until one of them leaves the fast path or is about to
+    // close, then finishes each on its own from where it stopped
+    private static void totalInterestCents4(long[] principalCents, long[] scaledAnnualRates, int[] termMonths,
+                                            long[] totalInterestCents, int i) {
+        long r0 = scaledAnnualRates[i], r1 = scaledAnnualRates[i + 1];
+        long r2 = scaledAnnualRates[i + 2], r3 = scaledAnnualRates[i + 3];
+        long b0 = principalCents[i], b1 = principalCents[i + 1];
+        long b2 = principalCents[i + 2], b3 = principalCents[i + 3];
+        long pay0 = paymentCents(b0, r0, termMonths[i]), pay1 = paymentCents(b1, r1, termMonths[i + 1]);
+        long pay2 = paymentCents(b2, r2, termMonths[i + 2]), pay3 = paymentCents(b3, r3, termMonths[i + 3]);
+        long lim0 = fastPathLimit(b0, r0), lim1 = fastPathLimit(b1, r1);
+        long lim2 = fastPathLimit(b2, r2), lim3 = fastPathLimit(b3, r3);
+        long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int last = Math.min(Math.min(termMonths[i], termMonths[i + 1]), Math.min(termMonths[i + 2], termMonths[i + 3]));
+        if ((b0 | b1 | b2 | b3) < 0) {
+            last = 1; // a negative principal always takes the general path
+        }
+        
+        int period = 1;
+        for (; period < last; period++) {
+            if (b0 > lim0 || b1 > lim1 || b2 > lim2 || b3 > lim3) {
+                break;
+            }
+            long i0 = roundedQuotient(b0 * r0), i1 = roundedQuotient(b1 * r1);
+            long i2 = roundedQuotient(b2 * r2), i3 = roundedQuotient(b3 * r3);
+            long p0 = pay0 - i0, p1 = pay1 - i1, p2 = pay2 - i2, p3 = pay3 - i3;
+            if (p0 >= b0 || p1 >= b1 || p2 >= b2 || p3 >= b3) {
+                break;
+            }
+            s0 += i0;
+            s1 += i1;
+            s2 += i2;
+            s3 += i3;
+            b0 -= p0;
+            b1 -= p1;
+            b2 -= p2;
+            b3 -= p3;
+        }
+        totalInterestCents[i] = totalInterestFrom(b0, s0, period, pay0, lim0, r0, termMonths[i]);
+        totalInterestCents[i + 1] = totalInterestFrom(b1, s1, period, pay1, lim1, r1, termMonths[i + 1]);
+        totalInterestCents[i + 2] = totalInterestFrom(b2, s2, period, pay2, lim2, r2, termMonths[i + 2]);
+        totalInterestCents[i + 3] = totalInterestFrom(b3, s3, period, pay3, lim3, r3, termMonths[i + 3]);
+    }
+    
+    private static long totalInterestFrom(long balance, long totalInterest, int firstPeriod, long payment,
+                                          long fastLimit, long scaledAnnualRate, int termMonths) {
+        for (int period = firstPeriod; period <= termMonths; period++) {
+            long interest = balance <= fastLimit && balance >= 0 ? roundedQuotient(balance * scaledAnnualRate)
+                                                                 : interestCents(balance, scaledAnnualRate);
+            totalInterest += interest;
+            if (period == termMonths || payment - interest >= balance) {
+                break;
+            }
+            balance -= payment - interest;
+        }
+        return totalInterest;
+    }
+    
+    /**
+     * Fills caller-supplied columns with the schedule, one entry per period,
+     * and returns the number of periods written. A large payment can retire
+     * the loan early, in which case fewer than termMonths rows are written.
+     */
+    public static int fillSchedule(long principalCents, long scaledAnnualRate, int termMonths,
+                                   long[] paymentCents, long[] interestCents,
+                                   long[] principalPaidCents, long[] balanceCents) {
+        if (paymentCents.length < termMonths || interestCents.length < termMonths
+                || principalPaidCents.length < termMonths || balanceCents.length < termMonths) {
+            throw new IllegalArgumentException("Schedule columns must hold " + termMonths + " periods");
+        }
+        long payment = paymentCents(principalCents, scaledAnnualRate, termMonths);
+        long fastLimit = fastPathLimit(principalCents, scaledAnnualRate);
+        long balance = principalCents;
+        
+        for (int i = 0; i < termMonths; i++) {
+            long interest = balance <= fastLimit && balance >= 0 ? roundedQuotient(balance * scaledAnnualRate)
+                                                                 : interestCents(balance, scaledAnnualRate);
+            long principalPaid = payment - interest;
+            if (i == termMonths - 1 || principalPaid >= balance) {
+                principalPaid = balance;
+            }
+            balance -= principalPaid;
+            
+            paymentCents[i] = principalPaid + interest;
+            interestCents[i] = interest;
+            principalPaidCents[i] = principalPaid;
+            balanceCents[i] = balance;
+            if (balance == 0) {
+                return i + 1;
+            }
+        }
+        return termMonths;
+    }
+}
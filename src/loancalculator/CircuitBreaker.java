@@ -0,0 +1,103 @@
+package loancalculator;
+
+/**
+ * Circuit breaker for a remote dependency. After {@code failureThreshold}
+ * consecutive failures the breaker opens and {@link #tryAcquire} refuses
+ * calls immediately instead of letting each one wait out a timeout. Once the
+ * open period has passed, the breaker goes half-open and lets exactly one
+ * probe call through: success closes it, failure reopens it with the open
+ * period doubled, up to {@code maxOpenMillis}.
+ *
+ * Callers report every permitted call as a success, a failure, or neutral
+ * (an error that says nothing about the dependency's health).
+ */
+public final class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    private final String name;
+    private final int failureThreshold;
+    private final long baseOpenMillis;
+    private final long maxOpenMillis;
+    
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openMillis;
+    private long openedAt;
+    private boolean probeInFlight;
+    
+    public CircuitBreaker(String name, int failureThreshold, long openMillis, long maxOpenMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.baseOpenMillis = openMillis;
+        this.maxOpenMillis = Math.max(openMillis, maxOpenMillis);
+        this.openMillis = openMillis;
+    }
+    
+    /**
+     * True if the call may proceed. While half-open only the first caller
+     * gets through as the probe; everyone else fails fast until it reports.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+    
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            System.out.println(name + " recovered; circuit closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openMillis = baseOpenMillis;
+        probeInFlight = false;
+    }
+    
+    public synchronized void onFailure() {
+        probeInFlight = false;
+        if (state == State.HALF_OPEN) {
+            openMillis = Math.min(openMillis * 2, maxOpenMillis);
+            open();
+        } else if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+    
+    public synchronized void onNeutral() {
+        probeInFlight = false;
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    /**
+     * Milliseconds until the next probe is allowed, or 0 if calls may proceed.
+     */
+    public synchronized long getRetryInMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openMillis - (System.currentTimeMillis() - openedAt));
+    }
+    
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        System.err.println(name + " unavailable; failing fast for " + openMillis + " ms");
+    }
+}
@@ -0,0 +1,403 @@
+package loancalculator;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded JDBC connection pool. Checkouts hand out a proxy whose
+ * {@code close()} returns the physical connection to the pool, so callers keep
+ * using try-with-resources exactly as they did with {@code DriverManager}.
+ *
+ * Idle connections are reused most-recently-used first and re-validated only
+ * when they have sat idle longer than the validation interval. A background
+ * sweep closes connections idle past the idle timeout or older than the
+ * maximum lifetime, and a connection that reports a broken link (SQL state
+ * class 08) is discarded instead of being returned. If the pool is given a
+ * {@link CircuitBreaker}, every returned lease is reported to it as a success
+ * or, when its link broke, a failure.
+ */
+public final class ConnectionPool implements AutoCloseable {
+    private static final long VALIDATION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long SWEEP_INTERVAL_SECONDS = 30;
+    
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final long acquireTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final long maxLifetimeNanos;
+    private final CircuitBreaker breaker;
+    
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private volatile long maxWaitNanos;
+    private final ScheduledExecutorService sweeper;
+    private volatile boolean closed;
+    
+    public ConnectionPool(String url, String username, String password, int maxSize,
+                          long acquireTimeoutMillis, long idleTimeoutMillis, long maxLifetimeMillis) {
+        this(url, username, password, maxSize, acquireTimeoutMillis, idleTimeoutMillis, maxLifetimeMillis, null);
+    }
+    
+    public ConnectionPool(String url, String username, String password, int maxSize,
+                          long acquireTimeoutMillis, long idleTimeoutMillis, long maxLifetimeMillis,
+                          CircuitBreaker breaker) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.acquireTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.maxLifetimeNanos = TimeUnit.MILLISECONDS.toNanos(maxLifetimeMillis);
+        this.breaker = breaker;
+        this.permits = new Semaphore(maxSize, true);
+        
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+    
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                throw new SQLTimeoutException("Timed out after "
+                    + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + " ms waiting for a database connection (" + getStats() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(DriverManager.getConnection(url, username, password));
+                created.increment();
+            }
+            long waited = System.nanoTime() - start;
+            waitNanos.add(waited);
+            if (waited > maxWaitNanos) {
+                maxWaitNanos = waited;
+            }
+            acquisitions.increment();
+            active.incrementAndGet();
+            return pooled.checkout();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    public Stats getStats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        long count = acquisitions.sum();
+        return new Stats(active.get(), idleCount, maxSize, permits.getQueueLength(), count, created.sum(),
+                         evicted.sum(), timeouts.sum(), count == 0 ? 0 : waitNanos.sum() / count / 1_000, maxWaitNanos / 1_000);
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        sweeper.shutdownNow();
+        synchronized (idle) {
+            for (PooledConnection pooled : idle) {
+                pooled.closePhysical();
+            }
+            idle.clear();
+        }
+    }
+    
+    private PooledConnection takeIdle() {
+        while (true) {
+            PooledConnection pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            long now = System.nanoTime();
+            if (now - pooled.createdAt > maxLifetimeNanos) {
+                discard(pooled);
+            } else if (now - pooled.lastUsed > VALIDATION_INTERVAL_NANOS && !pooled.isValid()) {
+                discard(pooled);
+            } else {
+                return pooled;
+            }
+        }
+    }
+    
+    private void release(PooledConnection pooled, boolean broken) {
+        active.decrementAndGet();
+        if (breaker != null) {
+            if (broken) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        }
+        try {
+            if (broken || closed || System.nanoTime() - pooled.createdAt > maxLifetimeNanos || !pooled.reset()) {
+                discard(pooled);
+            } else {
+                pooled.lastUsed = System.nanoTime();
+                synchronized (idle) {
+                    idle.addFirst(pooled);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private void discard(PooledConnection pooled) {
+        evicted.increment();
+        pooled.closePhysical();
+    }
+    
+    // Least recently used connections sit at the tail, so eviction scans from there
+    private void sweep() {
+        long now = System.nanoTime();
+        Deque<PooledConnection> expired = new ArrayDeque<>();
+        synchronized (idle) {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastUsed > idleTimeoutNanos || now - pooled.createdAt > maxLifetimeNanos) {
+                    it.remove();
+                    expired.add(pooled);
+                }
+            }
+        }
+        for (PooledConnection pooled : expired) {
+            discard(pooled);
+        }
+    }
+    
+    private static boolean isConnectionError(Throwable t) {
+        for (; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public static class Stats {
+        public final int active;
+        public final int idle;
+        public final int maxSize;
+        public final int waiting;
+        public final long acquisitions;
+        public final long created;
+        public final long evicted;
+        public final long timeouts;
+        public final long meanWaitMicros;
+        public final long maxWaitMicros;
+        
+        public Stats(int active, int idle, int maxSize, int waiting, long acquisitions, long created,
+                     long evicted, long timeouts, long meanWaitMicros, long maxWaitMicros) {
+            this.active = active;
+            this.idle = idle;
+            this.maxSize = maxSize;
+            this.waiting = waiting;
+            this.acquisitions = acquisitions;
+            this.created = created;
+            this.evicted = evicted;
+            this.timeouts = timeouts;
+            this.meanWaitMicros = meanWaitMicros;
+            this.maxWaitMicros = maxWaitMicros;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("active=%d idle=%d max=%d waiting=%d acquisitions=%d created=%d evicted=%d timeouts=%d meanWait=%dus maxWait=%dus",
+                                 active, idle, maxSize, waiting, acquisitions, created, evicted, timeouts, meanWaitMicros, maxWaitMicros);
+        }
+    }
+    
+    private final class PooledConnection {
+        final Connection physical;
+        final long createdAt = System.nanoTime();
+        volatile long lastUsed = createdAt;
+        
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+        
+        Connection checkout() {
+            Lease lease = new Lease(this);
+            lease.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                                                              new Class<?>[] {Connection.class}, lease);
+            return lease.proxy;
+        }
+        
+        boolean isValid() {
+            try {
+                return physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+        
+        // Undo per-lease state so the next borrower sees a fresh connection
+        boolean reset() {
+            try {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+        
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing pooled connection: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Handler behind a checked-out connection. Statements and result sets it
+     * hands out are proxied as well: a dropped link usually surfaces from
+     * {@code execute} or {@code next} rather than from the connection itself,
+     * and {@code getConnection()} must not expose the physical connection.
+     */
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final AtomicBoolean returned = new AtomicBoolean();
+        private volatile boolean broken;
+        private Connection proxy;
+        
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        release(pooled, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get() || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.physical;
+                default:
+                    break;
+            }
+            return wrap(method, call(pooled.physical, method, args), proxy);
+        }
+        
+        private Object call(Object target, Method method, Object[] args) throws Throwable {
+            if (returned.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (isConnectionError(cause)) {
+                    broken = true;
+                }
+                throw cause;
+            }
+        }
+        
+        private Object wrap(Method method, Object result, Object parent) {
+            Class<?> type = method.getReturnType();
+            if (result == null || !type.isInterface()
+                || !(Statement.class.isAssignableFrom(type) || ResultSet.class.isAssignableFrom(type))) {
+                return result;
+            }
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, new Child(result, parent));
+        }
+        
+        private final class Child implements InvocationHandler {
+            private final Object target;
+            private final Object parent;
+            
+            Child(Object target, Object parent) {
+                this.target = target;
+                this.parent = parent;
+            }
+            
+            @Override
+            public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "getConnection":
+                        return proxy;
+                    case "getStatement":
+                        return parent;
+                    case "close":
+                    case "isClosed":
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    case "equals":
+                        return self == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    case "toString":
+                        return "Pooled" + target;
+                    default:
+                        return wrap(method, call(target, method, args), self);
+                }
+            }
+        }
+    }
+}
@@ -3,75 +3,151 @@ package loancalculator;
 import java.sql.*;
 import java.security.MessageDigest;
 import java.nio.charset.StandardCharsets;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class Database {
-    private static final String URL = "jdbc:postgresql://localhost:5432/loan_calculator";
+    private static final String BASE_URL = System.getProperty("loancalculator.db.url", 
+                                                              "jdbc:postgresql://localhost:5432/loan_calculator");
     private static final String USERNAME = "postgres";
     private static final String PASSWORD = "Admin";
     
+    // Seconds; bound how long a dead or unreachable server can hold up a caller
+    private static final int CONNECT_TIMEOUT_S = Integer.getInteger("loancalculator.db.connectTimeout", 3);
+    private static final int SOCKET_TIMEOUT_S = Integer.getInteger("loancalculator.db.socketTimeout", 30);
+    private static final String URL = BASE_URL + (BASE_URL.contains("?") ? "&" : "?") 
+                                      + "reWriteBatchedInserts=true" 
+                                      + "&connectTimeout=" + CONNECT_TIMEOUT_S 
+                                      + "&loginTimeout=" + CONNECT_TIMEOUT_S 
+                                      + "&socketTimeout=" + SOCKET_TIMEOUT_S;
+    
+    private static final int BREAKER_FAILURE_THRESHOLD = 3;
+    private static final long BREAKER_OPEN_MS = Long.getLong("loancalculator.db.retryInterval", 5_000);
+    private static final long BREAKER_MAX_OPEN_MS = 60_000;
+    
+    private static final CircuitBreaker BREAKER = new CircuitBreaker("Database", BREAKER_FAILURE_THRESHOLD, 
+                                                                     BREAKER_OPEN_MS, BREAKER_MAX_OPEN_MS);
+    
+    private static final int POOL_SIZE = 8;
+    private static final int PICTURE_PIPE_BYTES = 64 * 1024;
+    private static final long ACQUIRE_TIMEOUT_MS = Long.getLong("loancalculator.db.acquireTimeout", 5_000);
+    private static final long IDLE_TIMEOUT_MS = 10 * 60_000;
+    private static final long MAX_LIFETIME_MS = 30 * 60_000;
+    
+    private static final ConnectionPool POOL = new ConnectionPool(URL, USERNAME, PASSWORD, POOL_SIZE,
+                                                                  ACQUIRE_TIMEOUT_MS, IDLE_TIMEOUT_MS, MAX_LIFETIME_MS,
+                                                                  BREAKER);
+    
+    private static final int SAVE_QUEUE_CAPACITY = 10_000;
+    private static final int SAVE_BATCH_SIZE = 500;
+    private static final long SAVE_FLUSH_INTERVAL_MS = 50;
+    private static final long SAVE_ENQUEUE_TIMEOUT_MS = 2_000;
+    
+    private static final CalculationWriter WRITER = new CalculationWriter(SAVE_QUEUE_CAPACITY, SAVE_BATCH_SIZE,
+                                                                          SAVE_FLUSH_INTERVAL_MS, SAVE_ENQUEUE_TIMEOUT_MS);
+    
+    private static volatile CompletableFuture<Void> initialization = CompletableFuture.completedFuture(null);
+    
+    /**
+     * Pooled connection, guarded by a circuit breaker: once the server has
+     * refused or timed out on consecutive connects or queries, callers fail
+     * immediately with {@link SQLTransientConnectionException} until a probe
+     * succeeds. The pool reports how each borrowed connection fared when it
+     * is closed, so a server that accepts connections but then hangs still
+     * opens the breaker.
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USERNAME, PASSWORD);
+        if (!BREAKER.tryAcquire()) {
+            throw new SQLTransientConnectionException("Database unavailable; retrying in " 
+                + (BREAKER.getRetryInMillis() + 999) / 1000 + " s", "08001");
+        }
+        // Handing out an idle connection proves little, so only a probe counts it as a success
+        boolean probe = BREAKER.getState() == CircuitBreaker.State.HALF_OPEN;
+        try {
+            Connection conn = POOL.getConnection();
+            if (probe) {
+                BREAKER.onSuccess();
+            }
+            return conn;
+        } catch (SQLException e) {
+            if (e.getSQLState() != null && e.getSQLState().startsWith("08")) {
+                BREAKER.onFailure();
+            } else {
+                BREAKER.onNeutral();
+            }
+            throw e;
+        }
+    }
+    
+    public static boolean isAvailable() {
+        return BREAKER.getState() != CircuitBreaker.State.OPEN || BREAKER.getRetryInMillis() == 0;
+    }
+    
+    public static CircuitBreaker.State getCircuitState() {
+        return BREAKER.getState();
+    }
+    
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL.getStats();
+    }
+    
+    public static void shutdown() {
+        WRITER.close();
+        POOL.close();
+    }
+    
+    /**
+     * Runs {@link #initializeDatabase} on {@code executor}. Until it finishes,
+     * {@link #awaitInitialization} holds back the UI's database calls so they
+     * never run against a schema that is still being migrated.
+     */
+    public static CompletableFuture<Void> initializeDatabaseAsync(Executor executor) {
+        CompletableFuture<Void> init = CompletableFuture.runAsync(Database::initializeDatabase, executor);
+        initialization = init;
+        return init;
+    }
+    
+    static void awaitInitialization() {
+        initialization.join();
     }
     
     public static void initializeDatabase() {
         try (Connection conn = getConnection()) {
-            String createUsersTable = """
-                CREATE TABLE IF NOT EXISTS users (
-                    id SERIAL PRIMARY KEY,
-                    username VARCHAR(50) UNIQUE NOT NULL,
-                    password_hash VARCHAR(64) NOT NULL,
-                    email VARCHAR(100) NOT NULL,
-                    full_name VARCHAR(100) NOT NULL,
-                    profile_pic BYTEA,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-            """;
-            
-            String createCalculationsTable = """
-                CREATE TABLE IF NOT EXISTS loan_calculations (
-                    id SERIAL PRIMARY KEY,
-                    user_id INTEGER REFERENCES users(id),
-                    principal DECIMAL(15,2) NOT NULL,
-                    annual_rate DECIMAL(5,4) NOT NULL,
-                    term_months INTEGER NOT NULL,
-                    monthly_payment DECIMAL(15,2) NOT NULL,
-                    total_payment DECIMAL(15,2) NOT NULL,
-                    total_interest DECIMAL(15,2) NOT NULL,
-                    calculation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-            """;
-            
-            Statement stmt = conn.createStatement();
-            stmt.execute(createUsersTable);
-            stmt.execute(createCalculationsTable);
-            
-            System.out.println("Database initialized successfully!");
+            int applied = SchemaMigrator.migrate(conn);
+            System.out.println("Database initialized successfully! Schema version " 
+                               + SchemaMigrator.currentVersion(conn) + " (" + applied + " migrations applied)");
             
         } catch (SQLException e) {
             System.err.println("Database initialization failed: " + e.getMessage());
         }
     }
     
+    /**
+     * Opens and validates one connection without touching the schema. The
+     * AppCDS training run uses this instead of {@link #initializeDatabase} so
+     * a build loads the driver's connection classes without migrating
+     * whatever database it can reach.
+     */
+    static void verifyConnection() {
+        try (Connection conn = getConnection()) {
+            System.out.println("Database reachable: " + conn.getMetaData().getDatabaseProductVersion());
+        } catch (SQLException e) {
+            System.err.println("Database not reachable: " + e.getMessage());
+        }
+    }
+    
     public static String hashPassword(String password) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            
-            return hexString.toString();
+            return HexFormat.of().formatHex(hash);
         } catch (Exception e) {
             throw new RuntimeException("Error hashing password", e);
         }
@@ -97,8 +173,16 @@ public class Database {
         }
     }
     
-    public static int authenticateUser(String username, String password) {
-        String sql = "SELECT id FROM users WHERE LOWER(username) = LOWER(?) AND password_hash = ?";
+    /**
+     * Checks the credentials and, in the same query, loads everything the
+     * windows need about the user. Returns null when the login is rejected.
+     */
+    public static UserSession authenticateUser(String username, String password) {
+        String sql = """
+            SELECT id, username, full_name, email, profile_pic_hash 
+            FROM users 
+            WHERE LOWER(username) = LOWER(?) AND password_hash = ?
+        """;
         
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -108,101 +192,108 @@ public class Database {
             
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
-                return rs.getInt("id");
+                UserSession session = new UserSession(rs.getInt("id"), rs.getString("username"), 
+                                                      rs.getString("full_name"), rs.getString("email"), 
+                                                      rs.getString("profile_pic_hash"));
+                SessionCache.put(session);
+                return session;
             }
             
         } catch (SQLException e) {
             System.err.println("Authentication failed: " + e.getMessage());
         }
         
-        return -1;
+        return null;
     }
     
-    public static boolean saveCalculation(int userId, double principal, double annualRate, 
-                                        int termMonths, double monthlyPayment, 
-                                        double totalPayment, double totalInterest) {
-        String sql = """
-            INSERT INTO loan_calculations 
-            (user_id, principal, annual_rate, term_months, monthly_payment, total_payment, total_interest) 
-            VALUES (?, ?, ?, ?, ?, ?, ?)
-        """;
-        
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, userId);
-            pstmt.setDouble(2, principal);
-            pstmt.setDouble(3, annualRate);
-            pstmt.setInt(4, termMonths);
-            pstmt.setDouble(5, monthlyPayment);
-            pstmt.setDouble(6, totalPayment);
-            pstmt.setDouble(7, totalInterest);
-            
-            int result = pstmt.executeUpdate();
-            return result > 0;
-            
-        } catch (SQLException e) {
-            System.err.println("Failed to save calculation: " + e.getMessage());
-            return false;
-        }
+    /**
+     * Queues a calculation for the background writer. The future completes
+     * with true once the row is committed, or false if it could not be saved.
+     */
+    public static CompletableFuture<Boolean> saveCalculationAsync(int userId, double principal, double annualRate, 
+                                                                  int termMonths, double monthlyPayment, 
+                                                                  double totalPayment, double totalInterest) {
+        return WRITER.submit(userId, principal, annualRate, termMonths, monthlyPayment, totalPayment, totalInterest);
     }
     
-    public static String getUserFullName(int userId) {
-        String sql = "SELECT full_name FROM users WHERE id = ?";
+    /**
+     * Stores the picture as PNG without ever holding the encoded bytes in one
+     * array: a virtual thread encodes into a pipe that the driver reads as the
+     * parameter stream, and PostgreSQL computes the content hash itself.
+     */
+    public static boolean saveProfilePicture(String username, BufferedImage image) {
+        String sql = """
+            UPDATE users SET profile_pic = v.pic, profile_pic_hash = encode(sha256(v.pic), 'hex') 
+            FROM (SELECT ?::bytea AS pic) v 
+            WHERE LOWER(users.username) = LOWER(?) 
+            RETURNING users.profile_pic_hash
+        """;
         
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             PipedInputStream pictureIn = new PipedInputStream(PICTURE_PIPE_BYTES)) {
+            PipedOutputStream pictureOut = new PipedOutputStream(pictureIn);
+            IOException[] encodeError = new IOException[1];
+            Thread encoder = Thread.ofVirtual().name("profile-encoder").start(() -> {
+                try (pictureOut) {
+                    if (!ImageIO.write(image, "png", pictureOut)) {
+                        encodeError[0] = new IOException("No PNG encoder available");
+                    }
+                } catch (IOException e) {
+                    encodeError[0] = e;
+                }
+            });
             
-            if (rs.next()) {
-                return rs.getString("full_name");
+            // Commit only once the encoder has finished cleanly, so a failed encode never stores a truncated image
+            conn.setAutoCommit(false);
+            try {
+                pstmt.setBinaryStream(1, pictureIn);
+                pstmt.setString(2, username.toLowerCase());
+                String imageHash = null;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        imageHash = rs.getString(1);
+                    }
+                }
+                encoder.join();
+                if (encodeError[0] != null) {
+                    throw encodeError[0];
+                }
+                conn.commit();
+                if (imageHash != null) {
+                    SessionCache.profilePictureChanged(username, imageHash);
+                }
+                return imageHash != null;
+            } catch (SQLException | IOException | InterruptedException e) {
+                conn.rollback();
+                encoder.interrupt();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Failed to get user name: " + e.getMessage());
+        } catch (SQLException | IOException e) {
+            System.err.println("Error saving profile picture: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Profile picture save interrupted");
+            return false;
         }
-        
-        return "User";
     }
     
-    public static String getUsername(int userId) {
-        String sql = "SELECT username FROM users WHERE id = ?";
+    /**
+     * Hash of the stored profile picture, or null if there is none. This reads
+     * one short column, so it is cheap enough to revalidate cached thumbnails
+     * every time they are shown.
+     */
+    public static String getProfilePictureHash(String username) throws SQLException {
+        String sql = "SELECT profile_pic_hash FROM users WHERE LOWER(username) = LOWER(?)";
         
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, userId);
+            pstmt.setString(1, username.toLowerCase());
             ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getString("username");
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("Failed to get username: " + e.getMessage());
-        }
-        
-        return null;
-    }
-    
-    public static boolean saveProfilePicture(String username, BufferedImage image) {
-        String sql = "UPDATE users SET profile_pic = ? WHERE LOWER(username) = LOWER(?)";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(image, "png", baos);
-            byte[] imageBytes = baos.toByteArray();
-            
-            pstmt.setBytes(1, imageBytes);
-            pstmt.setString(2, username.toLowerCase());
-            int result = pstmt.executeUpdate();
-            return result > 0;
-        } catch (SQLException | IOException e) {
-            System.err.println("Error saving profile picture: " + e.getMessage());
-            return false;
+            return rs.next() ? rs.getString(1) : null;
         }
     }
     
@@ -215,10 +306,10 @@ public class Database {
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                byte[] imageBytes = rs.getBytes("profile_pic");
-                if (imageBytes != null) {
-                    ByteArrayInputStream bais = new ByteArrayInputStream(imageBytes);
-                    return ImageIO.read(bais);
+                try (InputStream imageStream = rs.getBinaryStream("profile_pic")) {
+                    if (imageStream != null) {
+                        return ImageIO.read(imageStream);
+                    }
                 }
             }
             return null;
@@ -229,12 +320,16 @@ public class Database {
     }
     
     public static boolean removeProfilePicture(String username) {
-        String sql = "UPDATE users SET profile_pic = NULL WHERE LOWER(username) = LOWER(?)";
+        String sql = "UPDATE users SET profile_pic = NULL, profile_pic_hash = NULL WHERE LOWER(username) = LOWER(?)";
         
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username.toLowerCase());
             int result = pstmt.executeUpdate();
+            if (result > 0) {
+                SessionCache.profilePictureChanged(username, null);
+                ThumbnailCache.invalidate(username);
+            }
             return result > 0;
         } catch (SQLException e) {
             System.err.println("Error removing profile picture: " + e.getMessage());
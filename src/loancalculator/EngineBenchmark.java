@@ -0,0 +1,115 @@
+package loancalculator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * Throughput comparison of the schedule engines: double iteration, exact long
+ * cents, and a BigDecimal reference with the same rounding rules. The cents
+ * results are checked against the reference on every loan before timing.
+ *
+ * Run with: java -cp LoanCalculator.jar loancalculator.EngineBenchmark [loans]
+ */
+final class EngineBenchmark {
+    private static final BigDecimal MONTHLY_DIVISOR = BigDecimal.valueOf(12 * CentsAmortization.RATE_SCALE);
+    
+    private EngineBenchmark() {
+    }
+    
+    public static void main(String[] args) {
+        int loans = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Random random = new Random(42);
+        long[] principalCents = new long[loans];
+        long[] scaledRates = new long[loans];
+        int[] terms = new int[loans];
+        for (int i = 0; i < loans; i++) {
+            principalCents[i] = 100_000 + (long) (random.nextDouble() * 100_000_000);
+            scaledRates[i] = CentsAmortization.scaleRate((1 + random.nextInt(80)) / 800.0);
+            terms[i] = new int[]{60, 120, 180, 360}[random.nextInt(4)];
+        }
+        
+        for (int i = 0; i < loans; i++) {
+            long exact = CentsAmortization.totalInterestCents(principalCents[i], scaledRates[i], terms[i]);
+            long reference = referenceInterestCents(principalCents[i], scaledRates[i], terms[i]);
+            if (exact != reference) {
+                throw new IllegalStateException("Loan " + i + ": cents engine " + exact + " != reference " + reference);
+            }
+        }
+        long[] batchInterest = new long[loans];
+        CentsAmortization.totalInterestCents(principalCents, scaledRates, terms, batchInterest, 0, loans);
+        for (int i = 0; i < loans; i++) {
+            long reference = referenceInterestCents(principalCents[i], scaledRates[i], terms[i]);
+            if (batchInterest[i] != reference) {
+                throw new IllegalStateException("Loan " + i + ": cents batch " + batchInterest[i] + " != reference " + reference);
+            }
+        }
+        System.out.println("Cents engine and batch match BigDecimal reference on " + loans + " loans");
+        
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            double doubleSink = 0;
+            for (int i = 0; i < loans; i++) {
+                doubleSink += doubleInterest(principalCents[i] / 100.0, scaledRates[i], terms[i]);
+            }
+            long doubleTime = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            long centsSink = 0;
+            for (int i = 0; i < loans; i++) {
+                centsSink += CentsAmortization.totalInterestCents(principalCents[i], scaledRates[i], terms[i]);
+            }
+            long centsTime = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            CentsAmortization.totalInterestCents(principalCents, scaledRates, terms, batchInterest, 0, loans);
+            long batchSink = 0;
+            for (long interest : batchInterest) {
+                batchSink += interest;
+            }
+            long batchTime = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            long referenceSink = 0;
+            for (int i = 0; i < loans; i++) {
+                referenceSink += referenceInterestCents(principalCents[i], scaledRates[i], terms[i]);
+            }
+            long referenceTime = System.nanoTime() - start;
+            
+            System.out.printf("round %d: double %6.1f ms | long cents %6.1f ms | cents batch %6.1f ms | BigDecimal %7.1f ms  (%.0f/%d/%d/%d)%n",
+                              round + 1, doubleTime / 1e6, centsTime / 1e6, batchTime / 1e6, referenceTime / 1e6,
+                              doubleSink, centsSink, batchSink, referenceSink);
+        }
+    }
+    
+    private static double doubleInterest(double principal, long scaledRate, int termMonths) {
+        double monthlyRate = (double) scaledRate / (12 * CentsAmortization.RATE_SCALE);
+        double payment = LoanCalculatorUtils.monthlyPaymentUncached(principal, monthlyRate, termMonths);
+        double balance = principal;
+        double totalInterest = 0;
+        for (int period = 1; period <= termMonths; period++) {
+            double interest = balance * monthlyRate;
+            totalInterest += interest;
+            balance -= payment - interest;
+        }
+        return totalInterest;
+    }
+    
+    private static long referenceInterestCents(long principalCents, long scaledRate, int termMonths) {
+        BigDecimal rate = BigDecimal.valueOf(scaledRate);
+        BigDecimal payment = BigDecimal.valueOf(CentsAmortization.paymentCents(principalCents, scaledRate, termMonths));
+        BigDecimal balance = BigDecimal.valueOf(principalCents);
+        BigDecimal totalInterest = BigDecimal.ZERO;
+        
+        for (int period = 1; period <= termMonths; period++) {
+            BigDecimal interest = balance.multiply(rate).divide(MONTHLY_DIVISOR, 0, RoundingMode.HALF_EVEN);
+            totalInterest = totalInterest.add(interest);
+            BigDecimal principalPaid = payment.subtract(interest);
+            if (period == termMonths || principalPaid.compareTo(balance) >= 0) {
+                break;
+            }
+            balance = balance.subtract(principalPaid);
+        }
+        return totalInterest.longValueExact();
+    }
+}
@@ -0,0 +1,504 @@
+package loancalculator;
+
+import javax.swing.table.AbstractTableModel;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Read-only table model over a user's saved calculations, newest first, that
+ * pages rows in from the database as the table scrolls. Pages are fetched with
+ * a keyset on {@code (calculation_date, id)} rather than OFFSET, so every page
+ * is a short index range scan however deep the user has scrolled. The next
+ * page is requested in the background once the viewport comes within
+ * {@link #PREFETCH_DISTANCE} rows of the end of what is loaded. Rows with no
+ * {@code calculation_date} (the column is nullable) sort last and are paged
+ * by id alone once the dated rows run out.
+ *
+ * Only the {@link #MAX_LOADED_PAGES} pages nearest the viewport keep their
+ * rows. Every page remembers the keys of its first and last row, so an evicted
+ * page is read back by that key range when the table scrolls to it again, and
+ * a long history costs a few bytes per page rather than its rows. Loaded rows
+ * are kept as raw columns and formatted on demand through a small row cache,
+ * like {@link AmortizationTableModel}. All state is confined to the event
+ * dispatch thread; fetches go through {@link AsyncDatabase} and come back
+ * through the window's {@link WindowTasks}.
+ */
+public class HistoryTableModel extends AbstractTableModel {
+    private static final String[] COLUMN_NAMES = {"Date", "Principal", "Rate (%)", "Term (Months)", 
+                                                  "Monthly Payment", "Total Payment", "Total Interest"};
+    static final int PAGE_SIZE = 200;
+    static final int PREFETCH_DISTANCE = 100;
+    static final int MAX_LOADED_PAGES = 8;
+    private static final int ROW_CACHE_SIZE = 128;
+    
+    private static final String FIRST_PAGE_SQL = """
+        SELECT id, calculation_date, principal, annual_rate, term_months, 
+               monthly_payment, total_payment, total_interest
+        FROM loan_calculations 
+        WHERE user_id = ? AND calculation_date IS NOT NULL 
+        ORDER BY calculation_date DESC, id DESC 
+        LIMIT ?
+    """;
+    
+    private static final String NEXT_PAGE_SQL = """
+        SELECT id, calculation_date, principal, annual_rate, term_months, 
+               monthly_payment, total_payment, total_interest
+        FROM loan_calculations 
+        WHERE user_id = ? AND (calculation_date, id) < (?, ?) 
+        ORDER BY calculation_date DESC, id DESC 
+        LIMIT ?
+    """;
+    
+    private static final String UNDATED_PAGE_SQL = """
+        SELECT id, calculation_date, principal, annual_rate, term_months, 
+               monthly_payment, total_payment, total_interest
+        FROM loan_calculations 
+        WHERE user_id = ? AND calculation_date IS NULL AND id < ? 
+        ORDER BY id DESC 
+        LIMIT ?
+    """;
+    
+    private static final String RELOAD_PAGE_SQL = """
+        SELECT id, calculation_date, principal, annual_rate, term_months, 
+               monthly_payment, total_payment, total_interest
+        FROM loan_calculations 
+        WHERE user_id = ? AND (calculation_date, id) <= (?, ?) AND (calculation_date, id) >= (?, ?) 
+        ORDER BY calculation_date DESC, id DESC 
+        LIMIT ?
+    """;
+    
+    private static final String RELOAD_UNDATED_PAGE_SQL = """
+        SELECT id, calculation_date, principal, annual_rate, term_months, 
+               monthly_payment, total_payment, total_interest
+        FROM loan_calculations 
+        WHERE user_id = ? AND calculation_date IS NULL AND id <= ? AND id >= ? 
+        ORDER BY id DESC 
+        LIMIT ?
+    """;
+    
+    private final int userId;
+    private final WindowTasks tasks;
+    private final Consumer<String> errorHandler;
+    private final DecimalFormat currencyFormat = new DecimalFormat("$#,##0.00");
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+    
+    private final List<Page> pages = new ArrayList<>();
+    private final Set<Long> removedIds = new HashSet<>();
+    private int size;
+    private int loadedPages;
+    private int lastViewedRow;
+    
+    private final int[] cachedRowIndex = new int[ROW_CACHE_SIZE];
+    private final Object[][] cachedRows = new Object[ROW_CACHE_SIZE][];
+    
+    private boolean datedExhausted;
+    private boolean hasMore = true;
+    private boolean failed;
+    private boolean fetching;
+    private boolean closed;
+    private int generation;
+    
+    public HistoryTableModel(int userId, WindowTasks tasks, Consumer<String> errorHandler) {
+        this.userId = userId;
+        this.tasks = tasks;
+        this.errorHandler = errorHandler;
+        Arrays.fill(cachedRowIndex, -1);
+    }
+    
+    /**
+     * Drops everything loaded and starts again from the newest calculation.
+     */
+    public void refresh() {
+        generation++;
+        int removed = size;
+        pages.clear();
+        removedIds.clear();
+        size = 0;
+        loadedPages = 0;
+        lastViewedRow = 0;
+        datedExhausted = false;
+        hasMore = true;
+        failed = false;
+        fetching = false;
+        Arrays.fill(cachedRowIndex, -1);
+        if (removed > 0) {
+            fireTableRowsDeleted(0, removed - 1);
+        }
+        fetchNext();
+    }
+    
+    /**
+     * Stops further fetches; pages still in flight are discarded on arrival.
+     */
+    public void close() {
+        closed = true;
+        generation++;
+    }
+    
+    public boolean isLoading() {
+        return fetching;
+    }
+    
+    public boolean isFullyLoaded() {
+        return !hasMore;
+    }
+    
+    int getLoadedPageCount() {
+        return loadedPages;
+    }
+    
+    public void removeRow(int row) {
+        Page page = pageOf(row);
+        int offset = row - page.start;
+        if (page.rows != null) {
+            removedIds.add(page.rows.ids[offset]);
+            page.rows.remove(offset);
+        } else {
+            // Applied when the page is read back
+            page.pendingRemovals.add(offset);
+        }
+        page.count--;
+        size--;
+        updateStarts();
+        Arrays.fill(cachedRowIndex, -1);
+        fireTableRowsDeleted(row, row);
+    }
+    
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 3 ? Integer.class : String.class;
+    }
+    
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        lastViewedRow = row;
+        int slot = row & (ROW_CACHE_SIZE - 1);
+        Object[] cached = cachedRows[slot];
+        if (cached != null && cachedRowIndex[slot] == row) {
+            if (row >= size - PREFETCH_DISTANCE) {
+                fetchNext();
+            }
+            return cached[column];
+        }
+        Page page = pageOf(row);
+        if (page.rows == null) {
+            // Blank until the page has been read back
+            fetchNext();
+            return null;
+        }
+        if (row >= size - PREFETCH_DISTANCE) {
+            fetchNext();
+        }
+        cached = formatRow(page.rows, row - page.start);
+        cachedRows[slot] = cached;
+        cachedRowIndex[slot] = row;
+        return cached[column];
+    }
+    
+    private Object[] formatRow(Rows rows, int i) {
+        return new Object[] {
+            rows.dates[i] != null ? dateFormat.format(rows.dates[i]) : "",
+            currencyFormat.format(rows.principal[i]),
+            String.format("%.2f", rows.annualRate[i] * 100),
+            rows.termMonths[i],
+            currencyFormat.format(rows.monthlyPayment[i]),
+            currencyFormat.format(rows.totalPayment[i]),
+            currencyFormat.format(rows.totalInterest[i])
+        };
+    }
+    
+    // Last page starting at or before row; zero-count pages share their start with the next one
+    private Page pageOf(int row) {
+        int low = 0;
+        int high = pages.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (pages.get(mid).start <= row) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return pages.get(low);
+    }
+    
+    private void updateStarts() {
+        int start = 0;
+        for (Page page : pages) {
+            page.start = start;
+            start += page.count;
+        }
+    }
+    
+    // One fetch at a time: read back the page under the viewport if it was evicted,
+    // otherwise extend the end of the history once the viewport comes near it
+    private void fetchNext() {
+        if (fetching || failed || closed) {
+            return;
+        }
+        if (size > 0) {
+            Page viewed = pageOf(Math.min(lastViewedRow, size - 1));
+            if (viewed.rows == null) {
+                reload(viewed);
+                return;
+            }
+        }
+        if (hasMore && lastViewedRow >= size - PREFETCH_DISTANCE) {
+            fetchNextPage();
+        }
+    }
+    
+    private void fetchNextPage() {
+        fetching = true;
+        int requestGeneration = generation;
+        boolean undated = datedExhausted;
+        Page last = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+        boolean hasCursor = last != null && last.undated == undated;
+        Timestamp afterDate = hasCursor ? last.lastDate : null;
+        long afterId = hasCursor ? last.lastId : Long.MAX_VALUE;
+        
+        tasks.run(AsyncDatabase.supply(() -> loadPage(undated, afterDate, afterId)), 
+                  rows -> appendPage(requestGeneration, undated, rows), 
+                  error -> fetchFailed(requestGeneration, error));
+    }
+    
+    private void reload(Page page) {
+        fetching = true;
+        int requestGeneration = generation;
+        tasks.run(AsyncDatabase.supply(() -> reloadPage(page)), 
+                  rows -> reloaded(requestGeneration, page, rows), 
+                  error -> fetchFailed(requestGeneration, error));
+    }
+    
+    private void fetchFailed(int requestGeneration, Throwable error) {
+        if (requestGeneration == generation) {
+            fetching = false;
+            failed = true;
+            errorHandler.accept("Failed to load history: " + error.getMessage());
+        }
+    }
+    
+    // afterDate is null for the first dated page; undated pages key on afterId alone
+    private Rows loadPage(boolean undated, Timestamp afterDate, long afterId) throws SQLException {
+        String sql = undated ? UNDATED_PAGE_SQL : afterDate == null ? FIRST_PAGE_SQL : NEXT_PAGE_SQL;
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            if (undated) {
+                pstmt.setLong(2, afterId);
+                pstmt.setInt(3, PAGE_SIZE);
+            } else if (afterDate == null) {
+                pstmt.setInt(2, PAGE_SIZE);
+            } else {
+                pstmt.setTimestamp(2, afterDate);
+                pstmt.setLong(3, afterId);
+                pstmt.setInt(4, PAGE_SIZE);
+            }
+            return read(pstmt);
+        }
+    }
+    
+    private Rows reloadPage(Page page) throws SQLException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(page.undated ? RELOAD_UNDATED_PAGE_SQL : RELOAD_PAGE_SQL)) {
+            pstmt.setInt(1, userId);
+            if (page.undated) {
+                pstmt.setLong(2, page.firstId);
+                pstmt.setLong(3, page.lastId);
+                pstmt.setInt(4, PAGE_SIZE);
+            } else {
+                pstmt.setTimestamp(2, page.firstDate);
+                pstmt.setLong(3, page.firstId);
+                pstmt.setTimestamp(4, page.lastDate);
+                pstmt.setLong(5, page.lastId);
+                pstmt.setInt(6, PAGE_SIZE);
+            }
+            return read(pstmt);
+        }
+    }
+    
+    private static Rows read(PreparedStatement pstmt) throws SQLException {
+        Rows rows = new Rows();
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                int i = rows.count++;
+                rows.ids[i] = rs.getLong(1);
+                rows.dates[i] = rs.getTimestamp(2);
+                rows.principal[i] = rs.getDouble(3);
+                rows.annualRate[i] = rs.getDouble(4);
+                rows.termMonths[i] = rs.getInt(5);
+                rows.monthlyPayment[i] = rs.getDouble(6);
+                rows.totalPayment[i] = rs.getDouble(7);
+                rows.totalInterest[i] = rs.getDouble(8);
+            }
+        }
+        rows.fetched = rows.count;
+        return rows;
+    }
+    
+    private void appendPage(int requestGeneration, boolean undated, Rows rows) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        fetching = false;
+        if (rows.count > 0) {
+            Page page = new Page(undated, rows);
+            page.start = size;
+            pages.add(page);
+            rows.removeAll(removedIds);
+            page.count = rows.count;
+            size += rows.count;
+            loaded(page);
+            if (page.count > 0) {
+                fireTableRowsInserted(page.start, size - 1);
+            }
+        }
+        if (rows.fetched < PAGE_SIZE) {
+            if (undated) {
+                hasMore = false;
+            } else {
+                // Dated rows are done; carry on with the undated ones
+                datedExhausted = true;
+            }
+        }
+        fetchNext();
+    }
+    
+    private void reloaded(int requestGeneration, Page page, Rows rows) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        fetching = false;
+        rows.removeAll(removedIds);
+        for (int offset : page.pendingRemovals) {
+            if (offset < rows.count) {
+                removedIds.add(rows.ids[offset]);
+                rows.remove(offset);
+            }
+        }
+        page.pendingRemovals.clear();
+        page.rows = rows;
+        loaded(page);
+        if (rows.count != page.count) {
+            // Rows in this range were deleted or added elsewhere since the page was first read
+            size += rows.count - page.count;
+            page.count = rows.count;
+            updateStarts();
+            Arrays.fill(cachedRowIndex, -1);
+            fireTableDataChanged();
+        } else if (page.count > 0) {
+            fireTableRowsUpdated(page.start, page.start + page.count - 1);
+        }
+        fetchNext();
+    }
+    
+    // Keeps at most MAX_LOADED_PAGES pages of rows, dropping those farthest from the viewport
+    private void loaded(Page page) {
+        loadedPages++;
+        while (loadedPages > MAX_LOADED_PAGES) {
+            Page viewed = pageOf(Math.min(lastViewedRow, Math.max(size - 1, 0)));
+            Page farthest = null;
+            int farthestDistance = -1;
+            for (Page candidate : pages) {
+                int distance = Math.abs(candidate.start - viewed.start);
+                if (candidate.rows != null && candidate != page && distance > farthestDistance) {
+                    farthest = candidate;
+                    farthestDistance = distance;
+                }
+            }
+            farthest.rows = null;
+            loadedPages--;
+        }
+    }
+    
+    /**
+     * One page of the history. The key range stays as first read, so the page
+     * can be read back after its rows have been dropped.
+     */
+    private static final class Page {
+        final boolean undated;
+        final Timestamp firstDate;
+        final long firstId;
+        final Timestamp lastDate;
+        final long lastId;
+        final List<Integer> pendingRemovals = new ArrayList<>(0);
+        int start;
+        int count;
+        Rows rows;
+        
+        Page(boolean undated, Rows rows) {
+            this.undated = undated;
+            this.firstDate = rows.dates[0];
+            this.firstId = rows.ids[0];
+            this.lastDate = rows.dates[rows.count - 1];
+            this.lastId = rows.ids[rows.count - 1];
+            this.rows = rows;
+        }
+    }
+    
+    private static final class Rows {
+        int count;
+        int fetched;
+        final long[] ids = new long[PAGE_SIZE];
+        final Timestamp[] dates = new Timestamp[PAGE_SIZE];
+        final double[] principal = new double[PAGE_SIZE];
+        final double[] annualRate = new double[PAGE_SIZE];
+        final int[] termMonths = new int[PAGE_SIZE];
+        final double[] monthlyPayment = new double[PAGE_SIZE];
+        final double[] totalPayment = new double[PAGE_SIZE];
+        final double[] totalInterest = new double[PAGE_SIZE];
+        
+        void remove(int i) {
+            int tail = count - i - 1;
+            System.arraycopy(ids, i + 1, ids, i, tail);
+            System.arraycopy(dates, i + 1, dates, i, tail);
+            System.arraycopy(principal, i + 1, principal, i, tail);
+            System.arraycopy(annualRate, i + 1, annualRate, i, tail);
+            System.arraycopy(termMonths, i + 1, termMonths, i, tail);
+            System.arraycopy(monthlyPayment, i + 1, monthlyPayment, i, tail);
+            System.arraycopy(totalPayment, i + 1, totalPayment, i, tail);
+            System.arraycopy(totalInterest, i + 1, totalInterest, i, tail);
+            count--;
+            dates[count] = null;
+        }
+        
+        void removeAll(Set<Long> removed) {
+            for (int i = count - 1; i >= 0 && !removed.isEmpty(); i--) {
+                if (removed.contains(ids[i])) {
+                    remove(i);
+                }
+            }
+        }
+    }
+}
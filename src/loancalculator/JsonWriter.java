@@ -0,0 +1,157 @@
+package loancalculator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Minimal streaming JSON writer over a reusable byte buffer. Numbers are
+ * formatted straight into bytes, commas are tracked with a small nesting
+ * stack, and nothing is allocated per value. When an output stream is
+ * attached, the buffer is flushed to it whenever it passes the chunk size,
+ * which lets long arrays stream with constant memory.
+ */
+final class JsonWriter {
+    private static final int MAX_DEPTH = 32;
+    
+    private final AsciiNumbers.ByteSink sink;
+    private final OutputStream out;
+    private final int chunkBytes;
+    private final boolean[] needsComma = new boolean[MAX_DEPTH];
+    private int depth;
+    
+    JsonWriter(int initialCapacity) {
+        this(null, initialCapacity);
+    }
+    
+    JsonWriter(OutputStream out, int chunkBytes) {
+        this.sink = new AsciiNumbers.ByteSink(chunkBytes + 256);
+        this.out = out;
+        this.chunkBytes = chunkBytes;
+    }
+    
+    JsonWriter beginObject() throws IOException {
+        open('{');
+        return this;
+    }
+    
+    JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+    
+    JsonWriter beginArray() throws IOException {
+        open('[');
+        return this;
+    }
+    
+    JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+    
+    JsonWriter name(String name) {
+        comma();
+        string(name);
+        sink.append(':');
+        needsComma[depth] = false;
+        return this;
+    }
+    
+    JsonWriter value(String value) throws IOException {
+        comma();
+        if (value == null) {
+            sink.append("null");
+        } else {
+            string(value);
+        }
+        return afterValue();
+    }
+    
+    JsonWriter value(long value) throws IOException {
+        comma();
+        sink.append(value);
+        return afterValue();
+    }
+    
+    JsonWriter value(boolean value) throws IOException {
+        comma();
+        sink.append(value ? "true" : "false");
+        return afterValue();
+    }
+    
+    /**
+     * Writes a fixed-point number; non-finite values become null since JSON
+     * has no NaN or infinity.
+     */
+    JsonWriter value(double value, int decimals) throws IOException {
+        comma();
+        if (Double.isFinite(value)) {
+            sink.appendFixed(value, decimals);
+        } else {
+            sink.append("null");
+        }
+        return afterValue();
+    }
+    
+    int length() {
+        return sink.length();
+    }
+    
+    byte[] array() {
+        return sink.array();
+    }
+    
+    void flush() throws IOException {
+        if (out != null && sink.length() > 0) {
+            out.write(sink.array(), 0, sink.length());
+            sink.reset();
+        }
+    }
+    
+    private void open(char bracket) throws IOException {
+        if (depth + 1 >= MAX_DEPTH) {
+            throw new IllegalStateException("JSON nested too deeply");
+        }
+        comma();
+        sink.append(bracket);
+        needsComma[++depth] = false;
+    }
+    
+    private JsonWriter close(char bracket) throws IOException {
+        sink.append(bracket);
+        depth--;
+        return afterValue();
+    }
+    
+    private void comma() {
+        if (needsComma[depth]) {
+            sink.append(',');
+        }
+    }
+    
+    private JsonWriter afterValue() throws IOException {
+        needsComma[depth] = true;
+        if (out != null && sink.length() >= chunkBytes) {
+            flush();
+        }
+        return this;
+    }
+    
+    private void string(String s) {
+        sink.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sink.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                sink.append("\\u");
+                String hex = Integer.toHexString(c);
+                for (int pad = hex.length(); pad < 4; pad++) {
+                    sink.append('0');
+                }
+                sink.append(hex);
+            } else {
+                sink.append(c);
+            }
+        }
+        sink.append('"');
+    }
+}
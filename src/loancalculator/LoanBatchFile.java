@@ -0,0 +1,417 @@
+package loancalculator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Memory-mapped columnar file of loan inputs and pricing results.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     8  magic "LOANCOL1"
+ *      8     4  format version (1)
+ *     12     4  flags (bit 0: result columns are filled)
+ *     16     8  capacity (rows reserved per column)
+ *     24     8  count (rows in use)
+ *     32    32  reserved
+ *     64        principal[capacity]      double
+ *               annualRate[capacity]     double (fraction, not percent)
+ *               termMonths[capacity]     int, padded to 8 bytes
+ *               monthlyPayment[capacity] double
+ *               totalPayment[capacity]   double
+ *               totalInterest[capacity]  double
+ *               effectiveRate[capacity]  double
+ * </pre>
+ *
+ * All values are little-endian. The whole file is mapped into a shared
+ * {@link MemorySegment}, and {@link #price(boolean, boolean)} runs the
+ * {@link LoanCalculatorUtils} kernels directly over the mapped columns, so
+ * repricing a preconverted book needs no parsing and no heap copy.
+ */
+public final class LoanBatchFile implements AutoCloseable {
+    private static final long MAGIC = 0x314C4F434E414F4CL; // "LOANCOL1" read little-endian
+    private static final int VERSION = 1;
+    private static final int FLAG_PRICED = 1;
+    private static final long HEADER_BYTES = 64;
+    private static final int SPLIT_THRESHOLD = 1 << 14;
+    private static final int IMPORT_CHUNK_ROWS = 1 << 16;
+    
+    private static final ValueLayout.OfDouble DOUBLE = LoanCalculatorUtils.COLUMN_DOUBLE;
+    private static final ValueLayout.OfInt INT = LoanCalculatorUtils.COLUMN_INT;
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    
+    private final Arena arena;
+    private final MemorySegment file;
+    private final long capacity;
+    private final MemorySegment principal;
+    private final MemorySegment annualRate;
+    private final MemorySegment termMonths;
+    private final MemorySegment monthlyPayment;
+    private final MemorySegment totalPayment;
+    private final MemorySegment totalInterest;
+    private final MemorySegment effectiveRate;
+    
+    private LoanBatchFile(Arena arena, MemorySegment file) {
+        if (file.byteSize() < HEADER_BYTES || file.get(LONG, 0) != MAGIC) {
+            arena.close();
+            throw new IllegalArgumentException("Not a columnar loan batch file");
+        }
+        if (file.get(INT, 8) != VERSION) {
+            arena.close();
+            throw new IllegalArgumentException("Unsupported batch file version " + file.get(INT, 8));
+        }
+        this.arena = arena;
+        this.file = file;
+        this.capacity = file.get(LONG, 16);
+        long count = file.get(LONG, 24);
+        if (capacity < 0 || count < 0 || count > capacity) {
+            arena.close();
+            throw new IllegalArgumentException("Corrupt batch file header: capacity " + capacity + ", count " + count);
+        }
+        // Bound capacity by the file size first so fileSize() cannot overflow
+        if (capacity > file.byteSize() / (Double.BYTES * 6) || file.byteSize() < fileSize(capacity)) {
+            arena.close();
+            throw new IllegalArgumentException("Batch file is truncated");
+        }
+        
+        long doubleColumn = capacity * Double.BYTES;
+        long intColumn = (capacity * Integer.BYTES + 7) & ~7L;
+        long offset = HEADER_BYTES;
+        principal = file.asSlice(offset, doubleColumn);
+        offset += doubleColumn;
+        annualRate = file.asSlice(offset, doubleColumn);
+        offset += doubleColumn;
+        termMonths = file.asSlice(offset, intColumn);
+        offset += intColumn;
+        monthlyPayment = file.asSlice(offset, doubleColumn);
+        offset += doubleColumn;
+        totalPayment = file.asSlice(offset, doubleColumn);
+        offset += doubleColumn;
+        totalInterest = file.asSlice(offset, doubleColumn);
+        offset += doubleColumn;
+        effectiveRate = file.asSlice(offset, doubleColumn);
+    }
+    
+    private static long fileSize(long capacity) {
+        return HEADER_BYTES + capacity * Double.BYTES * 6 + ((capacity * Integer.BYTES + 7) & ~7L);
+    }
+    
+    /**
+     * Creates (or replaces) a file with room for {@code capacity} rows and maps it.
+     */
+    public static LoanBatchFile create(Path path, long capacity) throws IOException {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = fileSize(capacity);
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            file.set(LONG, 0, MAGIC);
+            file.set(INT, 8, VERSION);
+            file.set(INT, 12, 0);
+            file.set(LONG, 16, capacity);
+            file.set(LONG, 24, 0);
+            return new LoanBatchFile(arena, file);
+        } catch (IOException | RuntimeException e) {
+            if (arena.scope().isAlive()) {
+                arena.close();
+            }
+            throw e;
+        }
+    }
+    
+    public static LoanBatchFile open(Path path) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new LoanBatchFile(arena, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size(), arena));
+        } catch (IOException | RuntimeException e) {
+            if (arena.scope().isAlive()) {
+                arena.close();
+            }
+            throw e;
+        }
+    }
+    
+    public long capacity() {
+        return capacity;
+    }
+    
+    public long size() {
+        return file.get(LONG, 24);
+    }
+    
+    public boolean isPriced() {
+        return (file.get(INT, 12) & FLAG_PRICED) != 0;
+    }
+    
+    /**
+     * Appends one loan; returns false when the file is full.
+     */
+    public boolean add(double loanPrincipal, double loanAnnualRate, int loanTermMonths) {
+        long index = size();
+        if (index >= capacity) {
+            return false;
+        }
+        principal.setAtIndex(DOUBLE, index, loanPrincipal);
+        annualRate.setAtIndex(DOUBLE, index, loanAnnualRate);
+        termMonths.setAtIndex(INT, index, loanTermMonths);
+        file.set(LONG, 24, index + 1);
+        file.set(INT, 12, file.get(INT, 12) & ~FLAG_PRICED);
+        return true;
+    }
+    
+    public double getPrincipal(long index) {
+        return principal.getAtIndex(DOUBLE, checkIndex(index));
+    }
+    
+    public double getAnnualRate(long index) {
+        return annualRate.getAtIndex(DOUBLE, checkIndex(index));
+    }
+    
+    public int getTermMonths(long index) {
+        return termMonths.getAtIndex(INT, checkIndex(index));
+    }
+    
+    public LoanCalculatorUtils.LoanResult getResult(long index) {
+        checkIndex(index);
+        return new LoanCalculatorUtils.LoanResult(monthlyPayment.getAtIndex(DOUBLE, index),
+                                                  totalPayment.getAtIndex(DOUBLE, index),
+                                                  totalInterest.getAtIndex(DOUBLE, index),
+                                                  effectiveRate.getAtIndex(DOUBLE, index));
+    }
+    
+    private long checkIndex(long index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Row " + index + " outside batch of " + size());
+        }
+        return index;
+    }
+    
+    /**
+     * Prices every row in place with the scalar kernel. Results are identical
+     * to {@link LoanCalculatorUtils#calculateLoan}.
+     */
+    public void price(boolean parallel) {
+        price(parallel, false);
+    }
+    
+    /**
+     * Prices every row in place, using the SIMD kernel when {@code vectorized}
+     * is set and the Vector API is available (see
+     * {@link LoanCalculatorUtils#calculateLoansVectorized(LoanCalculatorUtils.LoanBatch, boolean)}).
+     */
+    public void price(boolean parallel, boolean vectorized) {
+        long count = size();
+        if (parallel && count > SPLIT_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new PriceTask(0, count, vectorized));
+        } else {
+            price(0, count, vectorized);
+        }
+        file.set(INT, 12, file.get(INT, 12) | FLAG_PRICED);
+    }
+    
+    private void price(long from, long to, boolean vectorized) {
+        if (vectorized) {
+            LoanCalculatorUtils.calculateLoansVectorized(principal, annualRate, termMonths, monthlyPayment,
+                                                         totalPayment, totalInterest, effectiveRate, from, to);
+        } else {
+            LoanCalculatorUtils.calculateLoans(principal, annualRate, termMonths, monthlyPayment,
+                                               totalPayment, totalInterest, effectiveRate, from, to);
+        }
+    }
+    
+    private final class PriceTask extends RecursiveAction {
+        private final long from;
+        private final long to;
+        private final boolean vectorized;
+        
+        PriceTask(long from, long to, boolean vectorized) {
+            this.from = from;
+            this.to = to;
+            this.vectorized = vectorized;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                price(from, to, vectorized);
+                return;
+            }
+            long mid = (from + to) >>> 1;
+            invokeAll(new PriceTask(from, mid, vectorized), new PriceTask(mid, to, vectorized));
+        }
+    }
+    
+    public void force() {
+        file.force();
+    }
+    
+    @Override
+    public void close() {
+        arena.close();
+    }
+    
+    /**
+     * Converts a {@code principal,annual_rate_percent,term_months} CSV (the
+     * batch-mode input format) into a columnar file. Returns the number of
+     * rows skipped as invalid.
+     */
+    public static long importCsv(Path csv, Path target) throws IOException {
+        long lines = 0;
+        try (InputStream in = Files.newInputStream(csv)) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') lines++;
+                }
+            }
+        }
+        
+        long skipped = 0;
+        try (LoanBatchFile file = create(target, lines + 1);
+             InputStream in = Files.newInputStream(csv)) {
+            LoanCalculatorUtils.LoanBatch chunk = new LoanCalculatorUtils.LoanBatch(IMPORT_CHUNK_ROWS);
+            byte[] buffer = new byte[1 << 20];
+            int filled = 0;
+            long line = 1;
+            boolean eof = false;
+            
+            while (!eof) {
+                int read = in.read(buffer, filled, buffer.length - filled);
+                eof = read < 0;
+                if (read > 0) {
+                    filled += read;
+                }
+                int start = 0;
+                for (int i = 0; i < filled; i++) {
+                    if (buffer[i] == '\n' || (eof && i == filled - 1)) {
+                        int end = buffer[i] == '\n' ? i : i + 1;
+                        int contentEnd = end > start && buffer[end - 1] == '\r' ? end - 1 : end;
+                        if (contentEnd > start && !(line == 1 && BatchPricer.isHeader(buffer[start]))
+                                && BatchPricer.parseRow(buffer, start, contentEnd, chunk, null) != null) {
+                            skipped++;
+                        }
+                        if (chunk.size == chunk.capacity()) {
+                            file.append(chunk);
+                        }
+                        start = i + 1;
+                        line++;
+                    }
+                }
+                if (start == 0 && filled == buffer.length) {
+                    buffer = java.util.Arrays.copyOf(buffer, buffer.length * 2);
+                } else {
+                    System.arraycopy(buffer, start, buffer, 0, filled - start);
+                    filled -= start;
+                }
+            }
+            file.append(chunk);
+            file.force();
+        }
+        return skipped;
+    }
+    
+    private void append(LoanCalculatorUtils.LoanBatch chunk) {
+        long base = size();
+        if (base + chunk.size > capacity) {
+            throw new IllegalStateException("Batch file is full");
+        }
+        MemorySegment.copy(chunk.principal, 0, principal, DOUBLE, base * Double.BYTES, chunk.size);
+        MemorySegment.copy(chunk.annualRate, 0, annualRate, DOUBLE, base * Double.BYTES, chunk.size);
+        MemorySegment.copy(chunk.termMonths, 0, termMonths, INT, base * Integer.BYTES, chunk.size);
+        file.set(LONG, 24, base + chunk.size);
+        file.set(INT, 12, file.get(INT, 12) & ~FLAG_PRICED);
+        chunk.size = 0;
+    }
+    
+    /**
+     * Writes the inputs and, if priced, the results as CSV in the same layout
+     * the headless batch mode produces.
+     */
+    public void exportCsv(Path csv) throws IOException {
+        boolean priced = isPriced();
+        try (FileChannel out = FileChannel.open(csv, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            AsciiNumbers.ByteSink sink = new AsciiNumbers.ByteSink(1 << 20);
+            sink.append(priced
+                ? "principal,annual_rate_percent,term_months,monthly_payment,total_payment,total_interest,effective_rate\n"
+                : "principal,annual_rate_percent,term_months\n");
+            long count = size();
+            for (long i = 0; i < count; i++) {
+                sink.appendFixed(principal.getAtIndex(DOUBLE, i), 2).append(',')
+                    .appendFixed(annualRate.getAtIndex(DOUBLE, i) * 100, 6).append(',')
+                    .append(termMonths.getAtIndex(INT, i));
+                if (priced) {
+                    sink.append(',').appendFixed(monthlyPayment.getAtIndex(DOUBLE, i), 2)
+                        .append(',').appendFixed(totalPayment.getAtIndex(DOUBLE, i), 2)
+                        .append(',').appendFixed(totalInterest.getAtIndex(DOUBLE, i), 2)
+                        .append(',').appendFixed(effectiveRate.getAtIndex(DOUBLE, i), 6);
+                }
+                sink.append('\n');
+                if (sink.length() > (1 << 20) - 256) {
+                    flush(out, sink);
+                }
+            }
+            flush(out, sink);
+        }
+    }
+    
+    private static void flush(FileChannel out, AsciiNumbers.ByteSink sink) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(sink.array(), 0, sink.length());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        sink.reset();
+    }
+    
+    /**
+     * {@code columnar import <in.csv> <out.lcol>}, {@code columnar price <file.lcol> [--vector]}
+     * or {@code columnar export <file.lcol> <out.csv>}.
+     */
+    public static void main(String[] args) {
+        try {
+            if (args.length == 3 && args[0].equals("import")) {
+                long start = System.nanoTime();
+                long skipped = importCsv(Paths.get(args[1]), Paths.get(args[2]));
+                System.out.printf("Imported %s in %.2f s (%,d invalid rows skipped)%n",
+                                  args[2], (System.nanoTime() - start) / 1e9, skipped);
+            } else if ((args.length == 2 || (args.length == 3 && args[2].equals("--vector"))) && args[0].equals("price")) {
+                try (LoanBatchFile file = open(Paths.get(args[1]))) {
+                    long start = System.nanoTime();
+                    file.price(true, args.length == 3);
+                    file.force();
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    System.out.printf("Priced %,d loans in %.3f s (%,.0f loans/s)%n",
+                                      file.size(), seconds, file.size() / seconds);
+                }
+            } else if (args.length == 3 && args[0].equals("export")) {
+                try (LoanBatchFile file = open(Paths.get(args[1]))) {
+                    file.exportCsv(Paths.get(args[2]));
+                }
+            } else {
+                System.err.println("Usage: java -jar LoanCalculator.jar columnar import <in.csv> <out.lcol>\n"
+                                 + "       java -jar LoanCalculator.jar columnar price <file.lcol> [--vector]\n"
+                                 + "       java -jar LoanCalculator.jar columnar export <file.lcol> <out.csv>");
+                System.exit(2);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Columnar batch failed: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+}
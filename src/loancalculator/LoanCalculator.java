@@ -7,7 +7,8 @@ import java.awt.event.ActionListener;
 import java.text.DecimalFormat;
 
 public class LoanCalculator extends JFrame {
-    private int userId;
+    private final UserSession session;
+    private final int userId;
     private JTextField principalField;
     private JTextField interestRateField;
     private JTextField termField;
@@ -25,12 +26,14 @@ public class LoanCalculator extends JFrame {
     private double lastPrincipal = 0;
     private double lastAnnualRate = 0;
     private int lastTermMonths = 0;
+    private final WindowTasks tasks = new WindowTasks(this);
     
     private DecimalFormat currencyFormat = new DecimalFormat("$#,##0.00");
     private DecimalFormat percentFormat = new DecimalFormat("0.00%");
     
-    public LoanCalculator(int userId) {
-        this.userId = userId;
+    public LoanCalculator(UserSession session) {
+        this.session = session;
+        this.userId = session.getUserId();
         initializeComponents();
         setupLayout();
         setupEventHandlers();
@@ -105,7 +108,7 @@ public class LoanCalculator extends JFrame {
         titleLabel.setForeground(Color.WHITE);
         titleLabel.setBorder(BorderFactory.createEmptyBorder(20, 0, 20, 0));
         
-        JLabel userLabel = new JLabel("Welcome, " + Database.getUsername(userId), SwingConstants.RIGHT);
+        JLabel userLabel = new JLabel("Welcome, " + session.getUsername(), SwingConstants.RIGHT);
         userLabel.setForeground(Color.LIGHT_GRAY);
         userLabel.setFont(new Font("Arial", Font.ITALIC, 12));
         userLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 20));
@@ -309,20 +312,11 @@ public class LoanCalculator extends JFrame {
             lastAnnualRate = annualRate;
             lastTermMonths = termMonths;
             
-            double monthlyRate = annualRate / 12;
-            double monthlyPayment;
+            LoanCalculatorUtils.LoanResult loan = 
+                LoanCalculatorUtils.calculateLoan(principal, annualRate, termMonths);
             
-            if (monthlyRate == 0) {
-                monthlyPayment = principal / termMonths;
-            } else {
-                monthlyPayment = principal * (monthlyRate * Math.pow(1 + monthlyRate, termMonths)) / 
-                               (Math.pow(1 + monthlyRate, termMonths) - 1);
-            }
-            
-            double totalPayment = monthlyPayment * termMonths;
-            double totalInterest = totalPayment - principal;
-            
-            displayResults(principal, annualRate, termMonths, monthlyPayment, totalPayment, totalInterest);
+            displayResults(principal, annualRate, termMonths, loan.monthlyPayment, 
+                          loan.totalPayment, loan.totalInterest);
             
             saveButton.setEnabled(true);
             detailsButton.setEnabled(true);
@@ -382,28 +376,15 @@ public class LoanCalculator extends JFrame {
         result.append("Payment | Interest  | Principal | Balance\n");
         result.append("-".repeat(40)).append("\n");
         
-        double remainingBalance = principal;
-        double monthlyRate = annualRate / 12;
+        AmortizationSchedule schedule = LoanCalculatorUtils.schedule(principal, annualRate, termMonths);
         
         for (int i = 1; i <= Math.min(3, termMonths); i++) {
-            double interestPayment = remainingBalance * monthlyRate;
-            double principalPayment = monthlyPayment - interestPayment;
-            remainingBalance -= principalPayment;
-            
-            result.append(String.format("   %2d   | %s | %s | %s\n",
-                         i,
-                         String.format("%8s", currencyFormat.format(interestPayment)),
-                         String.format("%8s", currencyFormat.format(principalPayment)),
-                         String.format("%9s", currencyFormat.format(remainingBalance))));
+            appendPaymentRow(result, schedule, i);
         }
         
         if (termMonths > 3) {
             result.append("   ...  |    ...    |    ...    |    ...\n");
-            result.append(String.format("   %2d   | %s | %s | %s\n",
-                         termMonths,
-                         String.format("%8s", "varies"),
-                         String.format("%8s", "varies"),
-                         String.format("%9s", "$0.00")));
+            appendPaymentRow(result, schedule, termMonths);
         }
         
         result.append("\n");
@@ -414,6 +395,14 @@ public class LoanCalculator extends JFrame {
         resultArea.setCaretPosition(0);
     }
     
+    private void appendPaymentRow(StringBuilder result, AmortizationSchedule schedule, int period) {
+        result.append(String.format("   %2d   | %s | %s | %s\n",
+                     period,
+                     String.format("%8s", currencyFormat.format(schedule.interestPortion(period))),
+                     String.format("%8s", currencyFormat.format(schedule.principalPortion(period))),
+                     String.format("%9s", currencyFormat.format(schedule.balanceAfter(period)))));
+    }
+    
     private void clearFields() {
         principalField.setText("");
         interestRateField.setText("");
@@ -437,33 +426,23 @@ public class LoanCalculator extends JFrame {
         }
         
         try {
-            double monthlyRate = lastAnnualRate / 12;
-            double monthlyPayment;
-            
-            if (monthlyRate == 0) {
-                monthlyPayment = lastPrincipal / lastTermMonths;
-            } else {
-                monthlyPayment = lastPrincipal * (monthlyRate * Math.pow(1 + monthlyRate, lastTermMonths)) / 
-                               (Math.pow(1 + monthlyRate, lastTermMonths) - 1);
-            }
-            
-            double totalPayment = monthlyPayment * lastTermMonths;
-            double totalInterest = totalPayment - lastPrincipal;
+            LoanCalculatorUtils.LoanResult loan = 
+                LoanCalculatorUtils.calculateLoan(lastPrincipal, lastAnnualRate, lastTermMonths);
             
-            boolean saved = Database.saveCalculation(userId, lastPrincipal, lastAnnualRate, 
-                                                   lastTermMonths, monthlyPayment, 
-                                                   totalPayment, totalInterest);
-            
-            if (saved) {
-                JOptionPane.showMessageDialog(this, 
-                    "Calculation saved successfully!\nYou can view it in your history.", 
-                    "Save Successful", JOptionPane.INFORMATION_MESSAGE);
-                saveButton.setEnabled(false);
-            } else {
-                JOptionPane.showMessageDialog(this, 
-                    "Failed to save calculation!\nPlease check your database connection.", 
-                    "Save Failed", JOptionPane.ERROR_MESSAGE);
-            }
+            saveButton.setEnabled(false);
+            tasks.run(AsyncDatabase.saveCalculation(userId, lastPrincipal, lastAnnualRate, 
+                                                    lastTermMonths, loan.monthlyPayment, 
+                                                    loan.totalPayment, loan.totalInterest), 
+                      saved -> {
+                          if (saved) {
+                              JOptionPane.showMessageDialog(this, 
+                                  "Calculation saved successfully!\nYou can view it in your history.", 
+                                  "Save Successful", JOptionPane.INFORMATION_MESSAGE);
+                          } else {
+                              showSaveFailure("Please check your database connection.");
+                          }
+                      }, 
+                      error -> showSaveFailure(error.getMessage()));
             
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, 
@@ -472,6 +451,13 @@ public class LoanCalculator extends JFrame {
         }
     }
     
+    private void showSaveFailure(String reason) {
+        saveButton.setEnabled(true);
+        JOptionPane.showMessageDialog(this, 
+            "Failed to save calculation!\n" + reason, 
+            "Save Failed", JOptionPane.ERROR_MESSAGE);
+    }
+    
     private void openDetails() {
         if (lastPrincipal <= 0) {
             JOptionPane.showMessageDialog(this, 
@@ -492,14 +478,7 @@ public class LoanCalculator extends JFrame {
     }
     
     private void openAbout() {
-        String username = Database.getUsername(userId);
-        if (username != null) {
-            new About(username).setVisible(true);
-        } else {
-            JOptionPane.showMessageDialog(this, 
-                "Unable to retrieve username. Please try again later.", 
-                "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        new About(session).setVisible(true);
     }
     
     private void logout() {
@@ -509,6 +488,7 @@ public class LoanCalculator extends JFrame {
                                                  JOptionPane.YES_NO_OPTION,
                                                  JOptionPane.QUESTION_MESSAGE);
         if (choice == JOptionPane.YES_OPTION) {
+            SessionCache.invalidate(userId);
             new Login().setVisible(true);
             this.dispose();
         }
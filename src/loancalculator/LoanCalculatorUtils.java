@@ -1,12 +1,31 @@
 package loancalculator;
 
 
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
 import java.text.DecimalFormat;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class LoanCalculatorUtils {
     private static final DecimalFormat currencyFormat = new DecimalFormat("$#,##0.00");
     private static final DecimalFormat percentFormat = new DecimalFormat("0.00%");
     
+    // Below this many loans a batch slice is priced on the calling thread
+    private static final int BATCH_SPLIT_THRESHOLD = 1 << 13;
+    
+    // The SIMD kernel needs --add-modules jdk.incubator.vector; without it we stay scalar
+    private static final boolean VECTOR_API_AVAILABLE =
+        ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    
+    private static final AnnuityFactorCache annuityFactors = new AnnuityFactorCache(8192);
+    
+    static final ValueLayout.OfDouble COLUMN_DOUBLE =
+        ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfInt COLUMN_INT =
+        ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    
     public static class LoanResult {
         public double monthlyPayment;
         public double totalPayment;
@@ -22,16 +41,60 @@ public class LoanCalculatorUtils {
         }
     }
     
-    public static LoanResult calculateLoan(double principal, double annualRate, int termMonths) {
-        double monthlyRate = annualRate / 12;
-        double monthlyPayment;
+    /**
+     * Column-oriented loan batch. Inputs and outputs are parallel arrays indexed
+     * by loan, so a whole book can be priced without allocating per loan.
+     * Only the first {@code size} entries are used, which lets callers reuse
+     * one batch for successive chunks.
+     */
+    public static class LoanBatch {
+        public final double[] principal;
+        public final double[] annualRate;
+        public final int[] termMonths;
         
-        if (monthlyRate == 0) {
-            monthlyPayment = principal / termMonths;
-        } else {
-            monthlyPayment = principal * (monthlyRate * Math.pow(1 + monthlyRate, termMonths)) / 
-                           (Math.pow(1 + monthlyRate, termMonths) - 1);
+        public final double[] monthlyPayment;
+        public final double[] totalPayment;
+        public final double[] totalInterest;
+        public final double[] effectiveRate;
+        
+        public int size;
+        
+        public LoanBatch(int capacity) {
+            this(new double[capacity], new double[capacity], new int[capacity],
+                 new double[capacity], new double[capacity], new double[capacity], new double[capacity]);
+            this.size = 0;
+        }
+        
+        public LoanBatch(double[] principal, double[] annualRate, int[] termMonths,
+                        double[] monthlyPayment, double[] totalPayment,
+                        double[] totalInterest, double[] effectiveRate) {
+            int n = principal.length;
+            if (annualRate.length < n || termMonths.length < n || monthlyPayment.length < n
+                    || totalPayment.length < n || totalInterest.length < n || effectiveRate.length < n) {
+                throw new IllegalArgumentException("All batch columns must hold at least " + n + " entries");
+            }
+            this.principal = principal;
+            this.annualRate = annualRate;
+            this.termMonths = termMonths;
+            this.monthlyPayment = monthlyPayment;
+            this.totalPayment = totalPayment;
+            this.totalInterest = totalInterest;
+            this.effectiveRate = effectiveRate;
+            this.size = n;
+        }
+        
+        public int capacity() {
+            return principal.length;
+        }
+        
+        public LoanResult result(int index) {
+            return new LoanResult(monthlyPayment[index], totalPayment[index],
+                                  totalInterest[index], effectiveRate[index]);
         }
+    }
+    
+    public static LoanResult calculateLoan(double principal, double annualRate, int termMonths) {
+        double monthlyPayment = monthlyPayment(principal, annualRate / 12, termMonths);
         
         double totalPayment = monthlyPayment * termMonths;
         double totalInterest = totalPayment - principal;
@@ -40,6 +103,208 @@ public class LoanCalculatorUtils {
         return new LoanResult(monthlyPayment, totalPayment, totalInterest, effectiveRate);
     }
     
+    /**
+     * Exact-cents variant of {@link #calculateLoan}: the schedule is run in
+     * integer cents with per-period rounding and a final-payment adjustment,
+     * so totals reconcile with a servicing system. The monthly payment is the
+     * regular (not final) payment.
+     */
+    public static LoanResult calculateLoanExact(double principal, double annualRate, int termMonths) {
+        long principalCents = CentsAmortization.toCents(principal);
+        long scaledRate = CentsAmortization.scaleRate(annualRate);
+        long paymentCents = CentsAmortization.paymentCents(principalCents, scaledRate, termMonths);
+        long interestCents = CentsAmortization.totalInterestCents(principalCents, scaledRate, termMonths);
+        
+        double totalInterest = interestCents / 100.0;
+        double totalPayment = (principalCents + interestCents) / 100.0;
+        return new LoanResult(paymentCents / 100.0, totalPayment, totalInterest, totalInterest / principal);
+    }
+    
+    static double monthlyPayment(double principal, double monthlyRate, int termMonths) {
+        if (monthlyRate == 0) {
+            return principal / termMonths;
+        }
+        double growth = annuityFactors.growthFactor(monthlyRate, termMonths);
+        return principal * (monthlyRate * growth) / (growth - 1);
+    }
+    
+    // Batch kernels bypass the shared cache: book rates rarely repeat, and every miss
+    // would allocate and write a table that all fork/join workers share
+    static double monthlyPaymentUncached(double principal, double monthlyRate, int termMonths) {
+        if (monthlyRate == 0) {
+            return principal / termMonths;
+        }
+        double growth = Math.pow(1 + monthlyRate, termMonths);
+        return principal * (monthlyRate * growth) / (growth - 1);
+    }
+    
+    /**
+     * Level monthly payment for a loan, sharing the annuity-factor cache with
+     * the other single-quote pricing paths.
+     */
+    public static double calculateMonthlyPayment(double principal, double annualRate, int termMonths) {
+        return monthlyPayment(principal, annualRate / 12, termMonths);
+    }
+    
+    /**
+     * Annual rate implied by a monthly payment, or NaN if none exists.
+     */
+    public static double solveAnnualRate(double principal, double monthlyPayment, int termMonths) {
+        return new RateSolver().solveAnnualRate(principal, monthlyPayment, termMonths);
+    }
+    
+    /**
+     * APR once {@code fees} are taken out of the amount actually advanced.
+     */
+    public static double calculateApr(double principal, double annualRate, int termMonths, double fees) {
+        return new RateSolver().calculateApr(principal, annualRate, termMonths, fees);
+    }
+    
+    public static AmortizationSchedule schedule(double principal, double annualRate, int termMonths) {
+        return new AmortizationSchedule(principal, annualRate, termMonths);
+    }
+    
+    public static AnnuityFactorCache getAnnuityFactorCache() {
+        return annuityFactors;
+    }
+    
+    /**
+     * Prices every loan in the batch on the calling thread, or split across the
+     * common fork/join pool when {@code parallel} is set. Results are identical
+     * to {@link #calculateLoan} for the same inputs.
+     */
+    public static void calculateLoans(LoanBatch batch, boolean parallel) {
+        if (parallel && batch.size > BATCH_SPLIT_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new BatchTask(batch, 0, batch.size, false));
+        } else {
+            calculateLoans(batch, 0, batch.size);
+        }
+    }
+    
+    /**
+     * Same as {@link #calculateLoans(LoanBatch, boolean)} but uses the SIMD
+     * kernel when the Vector API is available. Vector results can differ from
+     * the scalar ones by a few parts in 1e14; use the scalar form where the
+     * numbers have to reconcile exactly.
+     */
+    public static void calculateLoansVectorized(LoanBatch batch, boolean parallel) {
+        if (parallel && batch.size > BATCH_SPLIT_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new BatchTask(batch, 0, batch.size, true));
+        } else {
+            calculateLoansVectorized(batch, 0, batch.size);
+        }
+    }
+    
+    public static void calculateLoansVectorized(LoanBatch batch, int from, int to) {
+        if (!VECTOR_API_AVAILABLE) {
+            calculateLoans(batch, from, to);
+            return;
+        }
+        if (from < 0 || to > batch.size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") outside batch of " + batch.size);
+        }
+        VectorPaymentKernel.calculate(batch, from, to);
+    }
+    
+    public static boolean isVectorApiAvailable() {
+        return VECTOR_API_AVAILABLE;
+    }
+    
+    public static void calculateLoans(LoanBatch batch, int from, int to) {
+        if (from < 0 || to > batch.size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") outside batch of " + batch.size);
+        }
+        double[] principals = batch.principal;
+        double[] annualRates = batch.annualRate;
+        int[] terms = batch.termMonths;
+        double[] monthlyPayments = batch.monthlyPayment;
+        double[] totalPayments = batch.totalPayment;
+        double[] totalInterests = batch.totalInterest;
+        double[] effectiveRates = batch.effectiveRate;
+        
+        for (int i = from; i < to; i++) {
+            double principal = principals[i];
+            int termMonths = terms[i];
+            double monthlyPayment = monthlyPaymentUncached(principal, annualRates[i] / 12, termMonths);
+            double totalPayment = monthlyPayment * termMonths;
+            double totalInterest = totalPayment - principal;
+            
+            monthlyPayments[i] = monthlyPayment;
+            totalPayments[i] = totalPayment;
+            totalInterests[i] = totalInterest;
+            effectiveRates[i] = totalInterest / principal;
+        }
+    }
+    
+    /**
+     * Scalar kernel over little-endian off-heap columns, one value per row, as
+     * laid out by {@link LoanBatchFile}. Prices rows {@code [from, to)} in place;
+     * results are identical to {@link #calculateLoan}.
+     */
+    static void calculateLoans(MemorySegment principals, MemorySegment annualRates, MemorySegment terms,
+                               MemorySegment monthlyPayments, MemorySegment totalPayments,
+                               MemorySegment totalInterests, MemorySegment effectiveRates,
+                               long from, long to) {
+        for (long i = from; i < to; i++) {
+            double principal = principals.getAtIndex(COLUMN_DOUBLE, i);
+            int termMonths = terms.getAtIndex(COLUMN_INT, i);
+            double monthlyPayment = monthlyPaymentUncached(principal, annualRates.getAtIndex(COLUMN_DOUBLE, i) / 12, termMonths);
+            double totalPayment = monthlyPayment * termMonths;
+            double totalInterest = totalPayment - principal;
+            
+            monthlyPayments.setAtIndex(COLUMN_DOUBLE, i, monthlyPayment);
+            totalPayments.setAtIndex(COLUMN_DOUBLE, i, totalPayment);
+            totalInterests.setAtIndex(COLUMN_DOUBLE, i, totalInterest);
+            effectiveRates.setAtIndex(COLUMN_DOUBLE, i, totalInterest / principal);
+        }
+    }
+    
+    /**
+     * SIMD form of the off-heap kernel, falling back to the scalar one when the
+     * Vector API is not available.
+     */
+    static void calculateLoansVectorized(MemorySegment principals, MemorySegment annualRates, MemorySegment terms,
+                                         MemorySegment monthlyPayments, MemorySegment totalPayments,
+                                         MemorySegment totalInterests, MemorySegment effectiveRates,
+                                         long from, long to) {
+        if (VECTOR_API_AVAILABLE) {
+            VectorPaymentKernel.calculate(principals, annualRates, terms, monthlyPayments, totalPayments,
+                                          totalInterests, effectiveRates, from, to);
+        } else {
+            calculateLoans(principals, annualRates, terms, monthlyPayments, totalPayments,
+                           totalInterests, effectiveRates, from, to);
+        }
+    }
+    
+    private static class BatchTask extends RecursiveAction {
+        private final LoanBatch batch;
+        private final int from;
+        private final int to;
+        private final boolean vectorized;
+        
+        BatchTask(LoanBatch batch, int from, int to, boolean vectorized) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.vectorized = vectorized;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SPLIT_THRESHOLD) {
+                if (vectorized) {
+                    calculateLoansVectorized(batch, from, to);
+                } else {
+                    calculateLoans(batch, from, to);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchTask(batch, from, mid, vectorized),
+                      new BatchTask(batch, mid, to, vectorized));
+        }
+    }
+    
     public static String formatCurrency(double amount) {
         return currencyFormat.format(amount);
     }
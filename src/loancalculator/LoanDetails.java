@@ -1,7 +1,6 @@
 package loancalculator;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.text.DecimalFormat;
 
@@ -10,7 +9,7 @@ public class LoanDetails extends JFrame {
     private double annualRate;
     private int termMonths;
     private JTable amortizationTable;
-    private DefaultTableModel tableModel;
+    private AmortizationTableModel tableModel;
     private DecimalFormat currencyFormat = new DecimalFormat("$#,##0.00");
     
     public LoanDetails(double principal, double annualRate, int termMonths) {
@@ -20,20 +19,12 @@ public class LoanDetails extends JFrame {
         
         initializeComponents();
         setupLayout();
-        generateAmortizationSchedule();
         setupWindow();
     }
     
     private void initializeComponents() {
-        String[] columnNames = {"Payment #", "Payment Amount", "Principal", 
-                               "Interest", "Remaining Balance"};
-        
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new AmortizationTableModel(
+            LoanCalculatorUtils.schedule(principal, annualRate, termMonths));
         
         amortizationTable = new JTable(tableModel);
         amortizationTable.setRowHeight(25);
@@ -108,38 +99,6 @@ public class LoanDetails extends JFrame {
         add(buttonPanel, BorderLayout.SOUTH);
     }
     
-    private void generateAmortizationSchedule() {
-        double monthlyRate = annualRate / 12;
-        double monthlyPayment;
-        
-        if (monthlyRate == 0) {
-            monthlyPayment = principal / termMonths;
-        } else {
-            monthlyPayment = principal * (monthlyRate * Math.pow(1 + monthlyRate, termMonths)) / 
-                           (Math.pow(1 + monthlyRate, termMonths) - 1);
-        }
-        
-        double remainingBalance = principal;
-        
-        for (int i = 1; i <= termMonths; i++) {
-            double interestPayment = remainingBalance * monthlyRate;
-            double principalPayment = monthlyPayment - interestPayment;
-            remainingBalance -= principalPayment;
-            
-            if (remainingBalance < 0.01) remainingBalance = 0;
-            
-            Object[] row = {
-                i,
-                currencyFormat.format(monthlyPayment),
-                currencyFormat.format(principalPayment),
-                currencyFormat.format(interestPayment),
-                currencyFormat.format(remainingBalance)
-            };
-            
-            tableModel.addRow(row);
-        }
-    }
-    
     private void printSchedule() {
         try {
             boolean printed = amortizationTable.print();
@@ -161,13 +120,16 @@ public class LoanDetails extends JFrame {
             try (java.io.PrintWriter writer = new java.io.PrintWriter(fileChooser.getSelectedFile())) {
                 writer.println("Payment #,Payment Amount,Principal,Interest,Remaining Balance");
                 
-                for (int i = 0; i < tableModel.getRowCount(); i++) {
-                    StringBuilder row = new StringBuilder();
-                    for (int j = 0; j < tableModel.getColumnCount(); j++) {
-                        if (j > 0) row.append(",");
-                        row.append("\"").append(tableModel.getValueAt(i, j)).append("\"");
-                    }
-                    writer.println(row.toString());
+                ScheduleCursor cursor = tableModel.getSchedule().cursor();
+                StringBuilder row = new StringBuilder();
+                while (cursor.next()) {
+                    row.setLength(0);
+                    row.append("\"").append(cursor.getPeriod()).append("\",");
+                    row.append("\"").append(currencyFormat.format(cursor.getPayment())).append("\",");
+                    row.append("\"").append(currencyFormat.format(cursor.getPrincipal())).append("\",");
+                    row.append("\"").append(currencyFormat.format(cursor.getInterest())).append("\",");
+                    row.append("\"").append(currencyFormat.format(cursor.getBalance())).append("\"");
+                    writer.println(row);
                 }
                 
                 JOptionPane.showMessageDialog(this, "Schedule exported successfully!", 
@@ -1,18 +1,13 @@
 package loancalculator;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.*;
-import java.text.DecimalFormat;
-import java.text.SimpleDateFormat;
 
 public class LoanHistory extends JFrame {
     private int userId;
     private JTable historyTable;
-    private DefaultTableModel tableModel;
-    private DecimalFormat currencyFormat = new DecimalFormat("$#,##0.00");
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+    private HistoryTableModel tableModel;
+    private final WindowTasks tasks = new WindowTasks(this);
     
     public LoanHistory(int userId) {
         this.userId = userId;
@@ -23,15 +18,8 @@ public class LoanHistory extends JFrame {
     }
     
     private void initializeComponents() {
-        String[] columnNames = {"Date", "Principal", "Rate (%)", "Term (Months)", 
-                               "Monthly Payment", "Total Payment", "Total Interest"};
-        
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new HistoryTableModel(userId, tasks, message -> 
+            JOptionPane.showMessageDialog(this, message, "Database Error", JOptionPane.ERROR_MESSAGE));
         
         historyTable = new JTable(tableModel);
         historyTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -95,44 +83,7 @@ public class LoanHistory extends JFrame {
     }
     
     private void loadHistoryData() {
-        tableModel.setRowCount(0);
-        
-        String sql = """
-            SELECT principal, annual_rate, term_months, monthly_payment, 
-                   total_payment, total_interest, calculation_date, id
-            FROM loan_calculations 
-            WHERE user_id = ? 
-            ORDER BY calculation_date DESC
-        """;
-        
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                Object[] row = {
-                    dateFormat.format(rs.getTimestamp("calculation_date")),
-                    currencyFormat.format(rs.getDouble("principal")),
-                    String.format("%.2f", rs.getDouble("annual_rate") * 100),
-                    rs.getInt("term_months"),
-                    currencyFormat.format(rs.getDouble("monthly_payment")),
-                    currencyFormat.format(rs.getDouble("total_payment")),
-                    currencyFormat.format(rs.getDouble("total_interest"))
-                };
-                tableModel.addRow(row);
-            }
-            
-            if (tableModel.getRowCount() == 0) {
-                JLabel noDataLabel = new JLabel("No calculation history found.", SwingConstants.CENTER);
-                noDataLabel.setForeground(Color.GRAY);
-            }
-            
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Failed to load history: " + e.getMessage(), 
-                                        "Database Error", JOptionPane.ERROR_MESSAGE);
-        }
+        tableModel.refresh();
     }
     
     private void deleteSelectedCalculation() {
@@ -155,6 +106,12 @@ public class LoanHistory extends JFrame {
         }
     }
     
+    @Override
+    public void dispose() {
+        tableModel.close();
+        super.dispose();
+    }
+    
     private void setupWindow() {
         setTitle("Loan Calculator - History");
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
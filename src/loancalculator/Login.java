@@ -10,6 +10,7 @@ public class Login extends JFrame {
     private JPasswordField passwordField;
     private JButton loginButton;
     private JButton signupButton;
+    private final WindowTasks tasks = new WindowTasks(this);
     
     public Login() {
         initializeComponents();
@@ -90,6 +91,12 @@ public class Login extends JFrame {
         });
         
         passwordField.addActionListener(e -> handleLogin());
+        
+        tasks.onBusyChanged(busy -> {
+            loginButton.setEnabled(!busy);
+            signupButton.setEnabled(!busy);
+            passwordField.setEnabled(!busy);
+        });
     }
     
     private void handleLogin() {
@@ -101,15 +108,26 @@ public class Login extends JFrame {
                                         "Input Error", JOptionPane.WARNING_MESSAGE);
             return;
         }
+        if (tasks.isBusy()) {
+            return;
+        }
         
-        int userId = Database.authenticateUser(username, password);
-        
-        if (userId != -1) {
+        tasks.run(AsyncDatabase.authenticateUser(username, password), 
+                  this::completeLogin, 
+                  error -> JOptionPane.showMessageDialog(this, "Login failed: " + error.getMessage(), 
+                                                         "Login Failed", JOptionPane.ERROR_MESSAGE));
+    }
+    
+    private void completeLogin(UserSession session) {
+        if (session != null) {
             JOptionPane.showMessageDialog(this, "Login successful!", 
                                         "Success", JOptionPane.INFORMATION_MESSAGE);
             
-            new LoanCalculator(userId).setVisible(true);
+            new LoanCalculator(session).setVisible(true);
             this.dispose();
+        } else if (!Database.isAvailable()) {
+            JOptionPane.showMessageDialog(this, "The database is currently unavailable.\nPlease try again shortly.", 
+                                        "Login Failed", JOptionPane.ERROR_MESSAGE);
         } else {
             JOptionPane.showMessageDialog(this, "Invalid username or password!", 
                                         "Login Failed", JOptionPane.ERROR_MESSAGE);
@@ -1,20 +1,28 @@
 package loancalculator;
 
-import javax.swing.*;
-import java.awt.*;
-
 public class Main {
     public static void main(String[] args) {
-        try {
-            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-        } catch (Exception e) {
-            e.printStackTrace();
+        if (args.length > 0 && args[0].equals("batch")) {
+            BatchPricer.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("server")) {
+            PricingServer.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("columnar")) {
+            LoanBatchFile.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("quote-server")) {
+            QuoteServer.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("quote-load")) {
+            QuoteLoadClient.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
         }
         
-        Database.initializeDatabase();
-        
-        SwingUtilities.invokeLater(() -> {
-            new Login().setVisible(true);
-        });
+        StartupOrchestrator.launch();
     }
 }
\ No newline at end of file
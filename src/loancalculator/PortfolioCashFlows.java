@@ -0,0 +1,150 @@
+package loancalculator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Projected scheduled principal and interest per calendar month for a whole
+ * loan book. Loans are split across a fork/join pool; every leaf task adds
+ * into its own pair of month arrays and the pairs are summed as the tasks
+ * join, so the hot loop never touches shared state and the totals do not
+ * depend on which worker ran which leaf.
+ *
+ * Month 0 is the first month of the projection. A loan whose first payment
+ * falls in month m contributes its payment k to month m + k - 1; cash flows
+ * past the horizon are dropped.
+ */
+public final class PortfolioCashFlows {
+    private static final int LEAF_SIZE = 1 << 11;
+    
+    private final double[] scheduledPrincipal;
+    private final double[] scheduledInterest;
+    
+    private PortfolioCashFlows(double[] scheduledPrincipal, double[] scheduledInterest) {
+        this.scheduledPrincipal = scheduledPrincipal;
+        this.scheduledInterest = scheduledInterest;
+    }
+    
+    public static PortfolioCashFlows aggregate(LoanCalculatorUtils.LoanBatch loans, int[] firstPaymentMonth,
+                                               int horizonMonths) {
+        return aggregate(loans, firstPaymentMonth, horizonMonths, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * @param firstPaymentMonth projection month of each loan's first payment,
+     *                          or null if every loan starts paying in month 0
+     */
+    public static PortfolioCashFlows aggregate(LoanCalculatorUtils.LoanBatch loans, int[] firstPaymentMonth,
+                                               int horizonMonths, ForkJoinPool pool) {
+        if (horizonMonths <= 0) {
+            throw new IllegalArgumentException("Horizon must be positive: " + horizonMonths);
+        }
+        if (firstPaymentMonth != null && firstPaymentMonth.length < loans.size) {
+            throw new IllegalArgumentException("firstPaymentMonth must hold " + loans.size + " entries");
+        }
+        
+        double[][] totals = pool.invoke(new AggregateTask(loans, firstPaymentMonth, horizonMonths, 0, loans.size));
+        return new PortfolioCashFlows(totals[0], totals[1]);
+    }
+    
+    public int getHorizonMonths() {
+        return scheduledPrincipal.length;
+    }
+    
+    public double getScheduledPrincipal(int month) {
+        return scheduledPrincipal[month];
+    }
+    
+    public double getScheduledInterest(int month) {
+        return scheduledInterest[month];
+    }
+    
+    public double getScheduledPayment(int month) {
+        return scheduledPrincipal[month] + scheduledInterest[month];
+    }
+    
+    public double[] getScheduledPrincipal() {
+        return scheduledPrincipal.clone();
+    }
+    
+    public double[] getScheduledInterest() {
+        return scheduledInterest.clone();
+    }
+    
+    // Returns {principal by month, interest by month} for loans [from, to)
+    private static final class AggregateTask extends RecursiveTask<double[][]> {
+        private final LoanCalculatorUtils.LoanBatch loans;
+        private final int[] firstPaymentMonth;
+        private final int horizonMonths;
+        private final int from;
+        private final int to;
+        
+        AggregateTask(LoanCalculatorUtils.LoanBatch loans, int[] firstPaymentMonth, int horizonMonths,
+                      int from, int to) {
+            this.loans = loans;
+            this.firstPaymentMonth = firstPaymentMonth;
+            this.horizonMonths = horizonMonths;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected double[][] compute() {
+            if (to - from > LEAF_SIZE) {
+                int mid = (from + to) >>> 1;
+                AggregateTask left = new AggregateTask(loans, firstPaymentMonth, horizonMonths, from, mid);
+                left.fork();
+                double[][] right = new AggregateTask(loans, firstPaymentMonth, horizonMonths, mid, to).compute();
+                double[][] sum = left.join();
+                for (int m = 0; m < horizonMonths; m++) {
+                    sum[0][m] += right[0][m];
+                    sum[1][m] += right[1][m];
+                }
+                return sum;
+            }
+            
+            double[][] accumulator = new double[2][horizonMonths];
+            double[] principalByMonth = accumulator[0];
+            double[] interestByMonth = accumulator[1];
+            
+            for (int i = from; i < to; i++) {
+                double principal = loans.principal[i];
+                double monthlyRate = loans.annualRate[i] / 12;
+                int termMonths = loans.termMonths[i];
+                int start = firstPaymentMonth == null ? 0 : firstPaymentMonth[i];
+                double payment = LoanCalculatorUtils.monthlyPaymentUncached(principal, monthlyRate, termMonths);
+                
+                int first = Math.max(start, 0);
+                int last = Math.min(start + termMonths, horizonMonths);
+                double balance = first > start
+                    ? seasonedBalance(principal, monthlyRate, termMonths, payment, first - start)
+                    : principal;
+                
+                for (int month = first; month < last; month++) {
+                    double interest = balance * monthlyRate;
+                    double principalPaid = month == start + termMonths - 1 ? balance : payment - interest;
+                    balance -= principalPaid;
+                    interestByMonth[month] += interest;
+                    principalByMonth[month] += principalPaid;
+                }
+            }
+            return accumulator;
+        }
+    }
+    
+    // Same closed form as AmortizationSchedule.balanceAfter, without building a schedule per loan
+    private static double seasonedBalance(double principal, double monthlyRate, int termMonths,
+                                          double payment, int paymentsMade) {
+        if (paymentsMade >= termMonths) {
+            return 0;
+        }
+        double balance;
+        if (monthlyRate == 0) {
+            balance = principal - payment * paymentsMade;
+        } else {
+            double growth = Math.pow(1 + monthlyRate, paymentsMade);
+            balance = principal * growth - payment * (growth - 1) / monthlyRate;
+        }
+        return balance < 0 ? 0 : balance;
+    }
+}
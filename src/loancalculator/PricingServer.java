@@ -0,0 +1,323 @@
+package loancalculator;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless JSON pricing service: {@code java -jar LoanCalculator.jar server [port]}.
+ *
+ * Built on the JDK's com.sun.net.httpserver with one virtual thread per
+ * request. Rates are annual percentages, as in the Swing front end.
+ * <pre>
+ * GET /api/loan?principal=250000&amp;rate=4.5&amp;term=360
+ * GET /api/schedule?principal=250000&amp;rate=4.5&amp;term=360   (streamed, chunked)
+ * GET /api/compare?loan=250000,4.5,360&amp;loan=250000,4.0,180
+ * GET /api/stats
+ * </pre>
+ * Every request's service time is recorded in a latency histogram, exposed
+ * as p50/p99/p99.9 by /api/stats.
+ */
+public final class PricingServer {
+    public static final int DEFAULT_PORT = 8085;
+    private static final int SCHEDULE_CHUNK_BYTES = 32 * 1024;
+    private static final int MAX_COMPARE_LOANS = 100;
+    
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    
+    public PricingServer(InetSocketAddress address) throws IOException {
+        this.server = HttpServer.create(address, 1024);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/loan", timed(this::handleLoan));
+        server.createContext("/api/schedule", timed(this::handleSchedule));
+        server.createContext("/api/compare", timed(this::handleCompare));
+        server.createContext("/api/stats", this::handleStats);
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.close();
+    }
+    
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+    
+    public String getLatencySummary() {
+        return String.format("%,d requests, mean %.1f us, p50 %.1f us, p99 %.1f us, p99.9 %.1f us",
+                             latency.count(), latency.meanNanos() / 1e3,
+                             latency.percentileNanos(0.50) / 1e3, latency.percentileNanos(0.99) / 1e3,
+                             latency.percentileNanos(0.999) / 1e3);
+    }
+    
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        if (args.length > 0) {
+            port = AsciiNumbers.parseInt(args[0].getBytes(StandardCharsets.US_ASCII), 0, args[0].length());
+            if (port <= 0 || port > 65535) {
+                System.err.println("Usage: java -jar LoanCalculator.jar server [port]");
+                System.exit(2);
+            }
+        }
+        try {
+            PricingServer pricingServer = new PricingServer(new InetSocketAddress(port));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                pricingServer.stop(0);
+                System.out.println("Pricing server stopped: " + pricingServer.getLatencySummary());
+            }));
+            pricingServer.start();
+            System.out.println("Pricing server listening on port " + port);
+        } catch (IOException e) {
+            System.err.println("Failed to start pricing server: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+    
+    private interface ExchangeHandler {
+        void handle(HttpExchange exchange, byte[] query) throws IOException;
+    }
+    
+    private HttpHandler timed(ExchangeHandler handler) {
+        return exchange -> {
+            long start = System.nanoTime();
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    sendError(exchange, 405, "Only GET is supported");
+                    return;
+                }
+                String rawQuery = exchange.getRequestURI().getRawQuery();
+                if (rawQuery != null && rawQuery.indexOf('%') >= 0) {
+                    // Percent-encoded commas etc.; values here never contain '&' or '='
+                    rawQuery = exchange.getRequestURI().getQuery();
+                }
+                byte[] query = rawQuery == null ? new byte[0] : rawQuery.getBytes(StandardCharsets.US_ASCII);
+                handler.handle(exchange, query);
+            } catch (RuntimeException e) {
+                System.err.println("Pricing request " + exchange.getRequestURI() + " failed: " + e);
+                e.printStackTrace();
+                // Once a streamed response has started, closing the exchange is all that is left
+                if (exchange.getResponseCode() < 0) {
+                    sendError(exchange, 500, "Internal error");
+                }
+            } finally {
+                exchange.close();
+                latency.record(System.nanoTime() - start);
+            }
+        };
+    }
+    
+    private void handleLoan(HttpExchange exchange, byte[] query) throws IOException {
+        double principal = doubleParam(query, "principal");
+        double ratePercent = doubleParam(query, "rate");
+        int termMonths = intParam(query, "term");
+        String problem = validate(principal, ratePercent, termMonths);
+        if (problem != null) {
+            sendError(exchange, 400, problem);
+            return;
+        }
+        
+        JsonWriter json = new JsonWriter(256);
+        writeLoan(json, principal, ratePercent, termMonths);
+        sendJson(exchange, json);
+    }
+    
+    private void handleSchedule(HttpExchange exchange, byte[] query) throws IOException {
+        double principal = doubleParam(query, "principal");
+        double ratePercent = doubleParam(query, "rate");
+        int termMonths = intParam(query, "term");
+        String problem = validate(principal, ratePercent, termMonths);
+        if (problem != null) {
+            sendError(exchange, 400, problem);
+            return;
+        }
+        
+        AmortizationSchedule schedule = LoanCalculatorUtils.schedule(principal, ratePercent / 100, termMonths);
+        jsonHeaders(exchange);
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            JsonWriter json = new JsonWriter(body, SCHEDULE_CHUNK_BYTES);
+            json.beginObject()
+                .name("monthlyPayment").value(schedule.getMonthlyPayment(), 2)
+                .name("rows").beginArray();
+            ScheduleCursor cursor = schedule.cursor();
+            while (cursor.next()) {
+                json.beginObject()
+                    .name("period").value(cursor.getPeriod())
+                    .name("payment").value(cursor.getPayment(), 2)
+                    .name("principal").value(cursor.getPrincipal(), 2)
+                    .name("interest").value(cursor.getInterest(), 2)
+                    .name("balance").value(cursor.getBalance(), 2)
+                    .endObject();
+            }
+            json.endArray().endObject();
+            json.flush();
+        }
+    }
+    
+    private void handleCompare(HttpExchange exchange, byte[] query) throws IOException {
+        JsonWriter json = new JsonWriter(1024);
+        json.beginObject().name("loans").beginArray();
+        
+        int loans = 0;
+        int best = -1;
+        double lowestTotal = Double.MAX_VALUE;
+        int from = 0;
+        while ((from = findParam(query, "loan", from)) >= 0) {
+            int end = valueEnd(query, from);
+            int firstComma = indexOf(query, from, end, (byte) ',');
+            int secondComma = firstComma < 0 ? -1 : indexOf(query, firstComma + 1, end, (byte) ',');
+            if (secondComma < 0 || ++loans > MAX_COMPARE_LOANS) {
+                sendError(exchange, 400, "Each loan must be principal,rate,term (at most " + MAX_COMPARE_LOANS + ")");
+                return;
+            }
+            double principal = AsciiNumbers.parseDouble(query, from, firstComma);
+            double ratePercent = AsciiNumbers.parseDouble(query, firstComma + 1, secondComma);
+            int termMonths = AsciiNumbers.parseInt(query, secondComma + 1, end);
+            String problem = validate(principal, ratePercent, termMonths);
+            if (problem != null) {
+                sendError(exchange, 400, "Loan " + loans + ": " + problem);
+                return;
+            }
+            
+            double totalPayment = writeLoan(json, principal, ratePercent, termMonths);
+            if (totalPayment < lowestTotal) {
+                lowestTotal = totalPayment;
+                best = loans - 1;
+            }
+            from = end;
+        }
+        if (loans == 0) {
+            sendError(exchange, 400, "Supply at least one loan=principal,rate,term parameter");
+            return;
+        }
+        
+        json.endArray().name("bestIndex").value(best).endObject();
+        sendJson(exchange, json);
+    }
+    
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            AnnuityFactorCache cache = LoanCalculatorUtils.getAnnuityFactorCache();
+            JsonWriter json = new JsonWriter(256);
+            json.beginObject()
+                .name("requests").value(latency.count())
+                .name("meanMicros").value(latency.meanNanos() / 1e3, 1)
+                .name("p50Micros").value(latency.percentileNanos(0.50) / 1e3, 1)
+                .name("p99Micros").value(latency.percentileNanos(0.99) / 1e3, 1)
+                .name("p999Micros").value(latency.percentileNanos(0.999) / 1e3, 1)
+                .name("annuityCacheHitRatio").value(cache.getHitRatio(), 4)
+                .endObject();
+            sendJson(exchange, json);
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    private static double writeLoan(JsonWriter json, double principal, double ratePercent, int termMonths)
+            throws IOException {
+        LoanCalculatorUtils.LoanResult result = LoanCalculatorUtils.calculateLoan(principal, ratePercent / 100, termMonths);
+        json.beginObject()
+            .name("principal").value(principal, 2)
+            .name("annualRatePercent").value(ratePercent, 6)
+            .name("termMonths").value(termMonths)
+            .name("monthlyPayment").value(result.monthlyPayment, 2)
+            .name("totalPayment").value(result.totalPayment, 2)
+            .name("totalInterest").value(result.totalInterest, 2)
+            .name("effectiveRate").value(result.effectiveRate, 6)
+            .endObject();
+        return result.totalPayment;
+    }
+    
+    private static String validate(double principal, double ratePercent, int termMonths) {
+        if (!(principal > 0) || Double.isInfinite(principal)) {
+            return "principal must be a positive number";
+        }
+        if (!(ratePercent >= 0 && ratePercent <= 100)) {
+            return "rate must be a percentage between 0 and 100";
+        }
+        if (termMonths <= 0 || termMonths > 1200) {
+            return "term must be between 1 and 1200 months";
+        }
+        return null;
+    }
+    
+    private static void jsonHeaders(HttpExchange exchange) {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "application/json");
+    }
+    
+    private static void sendJson(HttpExchange exchange, JsonWriter json) throws IOException {
+        jsonHeaders(exchange);
+        exchange.sendResponseHeaders(200, json.length());
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(json.array(), 0, json.length());
+        }
+    }
+    
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        JsonWriter json = new JsonWriter(128);
+        json.beginObject().name("error").value(message).endObject();
+        jsonHeaders(exchange);
+        exchange.sendResponseHeaders(status, json.length());
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(json.array(), 0, json.length());
+        }
+    }
+    
+    private static double doubleParam(byte[] query, String name) {
+        int from = findParam(query, name, 0);
+        return from < 0 ? Double.NaN : AsciiNumbers.parseDouble(query, from, valueEnd(query, from));
+    }
+    
+    private static int intParam(byte[] query, String name) {
+        int from = findParam(query, name, 0);
+        return from < 0 ? AsciiNumbers.NOT_AN_INT : AsciiNumbers.parseInt(query, from, valueEnd(query, from));
+    }
+    
+    // Start of the value of the next name=value pair at or after 'from', or -1
+    private static int findParam(byte[] query, String name, int from) {
+        int n = name.length();
+        int pairStart = from;
+        while (pairStart < query.length) {
+            int pairEnd = valueEnd(query, pairStart);
+            if (pairEnd - pairStart > n && query[pairStart + n] == '=') {
+                boolean match = true;
+                for (int i = 0; i < n && match; i++) {
+                    match = query[pairStart + i] == name.charAt(i);
+                }
+                if (match) {
+                    return pairStart + n + 1;
+                }
+            }
+            pairStart = pairEnd + 1;
+        }
+        return -1;
+    }
+    
+    private static int valueEnd(byte[] query, int from) {
+        int end = indexOf(query, from, query.length, (byte) '&');
+        return end < 0 ? query.length : end;
+    }
+    
+    private static int indexOf(byte[] bytes, int from, int to, byte target) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == target) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,164 @@
+package loancalculator;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.function.IntConsumer;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Rendering for profile pictures: scales an image to a square and clips it
+ * to the circular badge shown in the About dialog.
+ *
+ * Uploads go through {@link #readForThumbnail}, which reads only the file
+ * header to learn the dimensions and then decodes with source subsampling,
+ * so a 40-megapixel photo is decoded straight to a few hundred pixels a side
+ * and peak memory no longer depends on the input size.
+ */
+final class ProfileImages {
+    // Decode to at least this multiple of the target size so the final downscale still has detail
+    private static final int DECODE_OVERSAMPLE = 2;
+    
+    private ProfileImages() {
+    }
+    
+    /**
+     * Decodes {@code file} at roughly {@code DECODE_OVERSAMPLE * size} pixels
+     * per axis. Progress (0-100) is reported as the decoder advances. If the
+     * calling thread is interrupted the decode is aborted and
+     * {@link InterruptedIOException} is thrown.
+     */
+    static BufferedImage readForThumbnail(File file, int size, IntConsumer progress) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) {
+                throw new IOException("Cannot open " + file.getName());
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + file.getName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                
+                ImageReadParam param = reader.getDefaultReadParam();
+                int stepX = Math.max(1, width / (size * DECODE_OVERSAMPLE));
+                int stepY = Math.max(1, height / (size * DECODE_OVERSAMPLE));
+                param.setSourceSubsampling(stepX, stepY, 0, 0);
+                
+                reader.addIIOReadProgressListener(new IIOReadProgressListener() {
+                    @Override
+                    public void imageProgress(ImageReader source, float percentageDone) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            source.abort();
+                        }
+                        progress.accept((int) percentageDone);
+                    }
+                    
+                    @Override
+                    public void imageComplete(ImageReader source) {
+                        progress.accept(100);
+                    }
+                    
+                    @Override
+                    public void readAborted(ImageReader source) {
+                    }
+                    
+                    @Override
+                    public void imageStarted(ImageReader source, int imageIndex) {
+                    }
+                    
+                    @Override
+                    public void sequenceStarted(ImageReader source, int minIndex) {
+                    }
+                    
+                    @Override
+                    public void sequenceComplete(ImageReader source) {
+                    }
+                    
+                    @Override
+                    public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) {
+                    }
+                    
+                    @Override
+                    public void thumbnailProgress(ImageReader source, float percentageDone) {
+                    }
+                    
+                    @Override
+                    public void thumbnailComplete(ImageReader source) {
+                    }
+                });
+                
+                BufferedImage image = reader.read(0, param);
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Image load cancelled");
+                }
+                return image;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    static BufferedImage renderThumbnail(BufferedImage image, int size) {
+        return createCircularImage(resizeImage(image, size, size));
+    }
+    
+    /**
+     * Scales to {@code width x height}. Large reductions halve the image
+     * repeatedly first, since one bilinear pass over a big reduction only
+     * samples a few source pixels per output pixel and aliases badly.
+     */
+    static BufferedImage resizeImage(BufferedImage originalImage, int width, int height) {
+        while (originalImage.getWidth() / 2 >= width && originalImage.getHeight() / 2 >= height) {
+            originalImage = scale(originalImage, originalImage.getWidth() / 2, originalImage.getHeight() / 2);
+        }
+        return scale(originalImage, width, height);
+    }
+    
+    private static BufferedImage scale(BufferedImage originalImage, int width, int height) {
+        BufferedImage resizedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = resizedImage.createGraphics();
+        
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        
+        g2d.drawImage(originalImage, 0, 0, width, height, null);
+        g2d.dispose();
+        
+        return resizedImage;
+    }
+    
+    static BufferedImage createCircularImage(BufferedImage image) {
+        int size = Math.min(image.getWidth(), image.getHeight());
+        BufferedImage circularImage = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = circularImage.createGraphics();
+        
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        
+        g2d.setClip(new java.awt.geom.Ellipse2D.Float(0, 0, size, size));
+        
+        g2d.drawImage(image, 0, 0, size, size, null);
+        
+        g2d.setClip(null);
+        g2d.setColor(new Color(30, 144, 255));
+        g2d.setStroke(new BasicStroke(3));
+        g2d.drawOval(1, 1, size-3, size-3);
+        
+        g2d.dispose();
+        return circularImage;
+    }
+}
@@ -0,0 +1,142 @@
+package loancalculator;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator for {@link QuoteServer}:
+ * {@code java -jar LoanCalculator.jar quote-load [host] [port] [connections] [requests] [depth]}.
+ *
+ * Each connection keeps up to {@code depth} requests in flight, refilling the
+ * window whenever half of it has been answered, and checks that every
+ * response id matches the request it answers. Reports throughput and
+ * round-trip latency percentiles across all connections.
+ */
+final class QuoteLoadClient {
+    private final InetSocketAddress address;
+    private final int requestsPerConnection;
+    private final int depth;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder invalid = new LongAdder();
+    
+    QuoteLoadClient(InetSocketAddress address, int requestsPerConnection, int depth) {
+        this.address = address;
+        this.requestsPerConnection = requestsPerConnection;
+        this.depth = Math.max(1, depth);
+    }
+    
+    public static void main(String[] args) {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = QuoteServer.intArg(args, 1, QuoteServer.DEFAULT_PORT);
+        int connections = QuoteServer.intArg(args, 2, 8);
+        int requests = QuoteServer.intArg(args, 3, 250_000);
+        int depth = QuoteServer.intArg(args, 4, 256);
+        if (port <= 0 || port > 65535 || connections <= 0 || requests <= 0 || depth <= 0) {
+            System.err.println("Usage: java -jar LoanCalculator.jar quote-load [host] [port] [connections] [requests] [depth]");
+            System.exit(2);
+        }
+        
+        QuoteLoadClient client = new QuoteLoadClient(new InetSocketAddress(host, port), requests, depth);
+        Thread[] threads = new Thread[connections];
+        IOException[] failure = new IOException[1];
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            long seed = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    client.runConnection(seed);
+                } catch (IOException e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                }
+            }, "quote-load-" + i);
+            threads[i].start();
+        }
+        try {
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        if (failure[0] != null) {
+            System.err.println("Quote load failed: " + failure[0].getMessage());
+            System.exit(2);
+        }
+        long total = client.latency.count();
+        System.out.printf("%,d quotes over %d connections (depth %d) in %.2f s: %,.0f quotes/s%n",
+                          total, connections, depth, elapsed / 1e9, total / (elapsed / 1e9));
+        System.out.printf("round trip p50 %.1f us, p99 %.1f us, p99.9 %.1f us, mean %.1f us%n",
+                          client.latency.percentileNanos(0.50) / 1e3,
+                          client.latency.percentileNanos(0.99) / 1e3,
+                          client.latency.percentileNanos(0.999) / 1e3,
+                          client.latency.meanNanos() / 1e3);
+        if (client.invalid.sum() > 0) {
+            System.out.printf("%,d requests rejected as invalid%n", client.invalid.sum());
+        }
+    }
+    
+    private void runConnection(long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] sentAt = new long[depth];
+        ByteBuffer out = ByteBuffer.allocateDirect(depth * QuoteProtocol.REQUEST_FRAME);
+        ByteBuffer in = ByteBuffer.allocateDirect(depth * QuoteProtocol.RESPONSE_FRAME);
+        
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            long sent = 0;
+            long received = 0;
+            while (received < requestsPerConnection) {
+                // Top the window up once half of it has drained
+                if (sent - received <= depth / 2 && sent < requestsPerConnection) {
+                    out.clear();
+                    while (sent - received < depth && sent < requestsPerConnection) {
+                        double principal = 5_000 + random.nextInt(995_000);
+                        double annualRate = random.nextInt(1500) / 10_000.0;
+                        int termMonths = 12 * (1 + random.nextInt(30));
+                        QuoteProtocol.writeRequest(out, sent, principal, annualRate, termMonths);
+                        sentAt[(int) (sent % depth)] = System.nanoTime();
+                        sent++;
+                    }
+                    out.flip();
+                    while (out.hasRemaining()) {
+                        channel.write(out);
+                    }
+                }
+                
+                if (channel.read(in) < 0) {
+                    throw new EOFException("Server closed the connection after " + received + " responses");
+                }
+                in.flip();
+                long now = System.nanoTime();
+                while (in.remaining() >= QuoteProtocol.RESPONSE_FRAME) {
+                    int length = in.getInt();
+                    if (length != QuoteProtocol.RESPONSE_PAYLOAD) {
+                        throw new IOException("Bad response frame length " + length);
+                    }
+                    long requestId = in.getLong();
+                    if (requestId != received) {
+                        throw new IOException("Expected response " + received + " but got " + requestId);
+                    }
+                    if (in.getInt() != QuoteProtocol.STATUS_OK) {
+                        invalid.increment();
+                    }
+                    in.position(in.position() + 8 * 4);
+                    latency.record(now - sentAt[(int) (received % depth)]);
+                    received++;
+                }
+                in.compact();
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package loancalculator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-layout binary frames for the quote protocol. Every frame is a 4-byte
+ * big-endian payload length followed by the payload. Requests and responses
+ * carry a client-chosen id so a client can pipeline many requests on one
+ * connection; responses come back in request order.
+ *
+ * <pre>
+ * request payload (28 bytes)          response payload (44 bytes)
+ *   long   requestId                    long   requestId
+ *   double principal                    int    status (0 = ok, 1 = invalid input)
+ *   double annualRate (fraction)        double monthlyPayment
+ *   int    termMonths                   double totalPayment
+ *                                       double totalInterest
+ *                                       double effectiveRate
+ * </pre>
+ */
+final class QuoteProtocol {
+    static final int LENGTH_BYTES = 4;
+    static final int REQUEST_PAYLOAD = 8 + 8 + 8 + 4;
+    static final int RESPONSE_PAYLOAD = 8 + 4 + 8 * 4;
+    static final int REQUEST_FRAME = LENGTH_BYTES + REQUEST_PAYLOAD;
+    static final int RESPONSE_FRAME = LENGTH_BYTES + RESPONSE_PAYLOAD;
+    
+    static final int STATUS_OK = 0;
+    static final int STATUS_INVALID = 1;
+    
+    private QuoteProtocol() {
+    }
+    
+    static void writeRequest(ByteBuffer out, long requestId, double principal, double annualRate, int termMonths) {
+        out.putInt(REQUEST_PAYLOAD);
+        out.putLong(requestId);
+        out.putDouble(principal);
+        out.putDouble(annualRate);
+        out.putInt(termMonths);
+    }
+    
+    static void writeResponse(ByteBuffer out, long requestId, int status, double monthlyPayment,
+                              double totalPayment, double totalInterest, double effectiveRate) {
+        out.putInt(RESPONSE_PAYLOAD);
+        out.putLong(requestId);
+        out.putInt(status);
+        out.putDouble(monthlyPayment);
+        out.putDouble(totalPayment);
+        out.putDouble(totalInterest);
+        out.putDouble(effectiveRate);
+    }
+    
+    static boolean isValid(double principal, double annualRate, int termMonths) {
+        return principal > 0 && !Double.isInfinite(principal) && annualRate >= 0 && annualRate <= 1
+            && termMonths > 0 && termMonths <= 1200;
+    }
+}
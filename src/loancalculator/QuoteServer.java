@@ -0,0 +1,290 @@
+package loancalculator;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking server for {@link QuoteProtocol}:
+ * {@code java -jar LoanCalculator.jar quote-server [port] [selectors]}.
+ *
+ * One acceptor hands connections round-robin to a fixed set of selector
+ * threads. On every read a selector decodes all complete request frames in
+ * the connection's buffer into a {@link LoanCalculatorUtils.LoanBatch},
+ * prices them with one batch call, and encodes the responses in order, so a
+ * client pipelining hundreds of requests is priced in bulk. A connection
+ * stops being read while its unsent responses exceed the write high-water
+ * mark, which bounds memory when a client stops reading.
+ */
+public final class QuoteServer {
+    public static final int DEFAULT_PORT = 8086;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    private static final int WRITE_BUFFER_BYTES = 256 * 1024;
+    private static final int MAX_BATCH = READ_BUFFER_BYTES / QuoteProtocol.REQUEST_FRAME + 1;
+    
+    private final ServerSocketChannel serverChannel;
+    private final SelectorLoop[] loops;
+    private final AtomicLong quotes = new AtomicLong();
+    private volatile boolean running;
+    private Thread acceptThread;
+    
+    public QuoteServer(InetSocketAddress address, int selectors) throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        loops = new SelectorLoop[Math.max(1, selectors)];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new SelectorLoop();
+        }
+    }
+    
+    public void start() {
+        running = true;
+        for (int i = 0; i < loops.length; i++) {
+            Thread t = new Thread(loops[i], "quote-selector-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+        acceptThread = new Thread(this::acceptLoop, "quote-acceptor");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+    
+    public void stop() {
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing quote server: " + e.getMessage());
+        }
+        for (SelectorLoop loop : loops) {
+            loop.close();
+        }
+    }
+    
+    public int getPort() {
+        return ((InetSocketAddress) serverChannel.socket().getLocalSocketAddress()).getPort();
+    }
+    
+    public long getQuoteCount() {
+        return quotes.get();
+    }
+    
+    public static void main(String[] args) {
+        int port = intArg(args, 0, DEFAULT_PORT);
+        int selectors = intArg(args, 1, Runtime.getRuntime().availableProcessors());
+        if (port <= 0 || port > 65535 || selectors <= 0) {
+            System.err.println("Usage: java -jar LoanCalculator.jar quote-server [port] [selectors]");
+            System.exit(2);
+        }
+        try {
+            QuoteServer server = new QuoteServer(new InetSocketAddress(port), selectors);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                System.out.printf("Quote server stopped after %,d quotes%n", server.getQuoteCount());
+            }));
+            server.start();
+            System.out.println("Quote server listening on port " + server.getPort() + " with " + selectors + " selectors");
+            server.acceptThread.join();
+        } catch (IOException e) {
+            System.err.println("Failed to start quote server: " + e.getMessage());
+            System.exit(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // Command-line int at index, or defaultValue if absent; AsciiNumbers.NOT_AN_INT if malformed
+    static int intArg(String[] args, int index, int defaultValue) {
+        if (args.length <= index) {
+            return defaultValue;
+        }
+        byte[] bytes = args[index].getBytes(StandardCharsets.US_ASCII);
+        return AsciiNumbers.parseInt(bytes, 0, bytes.length);
+    }
+    
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Quote server accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+        final ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        final long[] requestIds = new long[MAX_BATCH];
+        
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            out.flip();
+        }
+    }
+    
+    private final class SelectorLoop implements Runnable {
+        private final Selector selector;
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        private final LoanCalculatorUtils.LoanBatch batch = new LoanCalculatorUtils.LoanBatch(MAX_BATCH);
+        private final boolean[] valid = new boolean[MAX_BATCH];
+        
+        SelectorLoop() throws IOException {
+            selector = Selector.open();
+        }
+        
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+        
+        void close() {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+            } catch (IOException | ClosedSelectorException e) {
+                System.err.println("Error closing quote selector: " + e.getMessage());
+            }
+        }
+        
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    SocketChannel channel;
+                    while ((channel = pending.poll()) != null) {
+                        channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        try {
+                            handle(key);
+                        } catch (IOException e) {
+                            key.cancel();
+                            key.channel().close();
+                        }
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                if (running) {
+                    System.err.println("Quote selector stopped: " + e.getMessage());
+                }
+            }
+        }
+        
+        private void handle(SelectionKey key) throws IOException {
+            Connection connection = (Connection) key.attachment();
+            if (key.isValid() && key.isWritable()) {
+                flush(key, connection);
+            }
+            if (key.isValid() && key.isReadable()) {
+                int read = connection.channel.read(connection.in);
+                if (read < 0) {
+                    key.cancel();
+                    connection.channel.close();
+                    return;
+                }
+                process(connection);
+                flush(key, connection);
+            }
+        }
+        
+        // Decodes every complete frame, prices them as one batch, and queues the responses
+        private void process(Connection connection) throws IOException {
+            ByteBuffer in = connection.in;
+            in.flip();
+            int frames = 0;
+            batch.size = 0;
+            int maxFrames = (WRITE_BUFFER_BYTES - connection.out.remaining()) / QuoteProtocol.RESPONSE_FRAME;
+            
+            while (frames < maxFrames && in.remaining() >= QuoteProtocol.LENGTH_BYTES) {
+                int length = in.getInt(in.position());
+                if (length != QuoteProtocol.REQUEST_PAYLOAD) {
+                    throw new IOException("Bad frame length " + length);
+                }
+                if (in.remaining() < QuoteProtocol.REQUEST_FRAME) {
+                    break;
+                }
+                in.getInt();
+                long requestId = in.getLong();
+                double principal = in.getDouble();
+                double annualRate = in.getDouble();
+                int termMonths = in.getInt();
+                
+                boolean ok = QuoteProtocol.isValid(principal, annualRate, termMonths);
+                connection.requestIds[frames] = requestId;
+                valid[frames] = ok;
+                batch.principal[frames] = ok ? principal : 1;
+                batch.annualRate[frames] = ok ? annualRate : 0;
+                batch.termMonths[frames] = ok ? termMonths : 1;
+                frames++;
+            }
+            in.compact();
+            if (frames == 0) {
+                return;
+            }
+            
+            batch.size = frames;
+            LoanCalculatorUtils.calculateLoans(batch, 0, frames);
+            quotes.addAndGet(frames);
+            
+            ByteBuffer out = connection.out;
+            out.compact();
+            for (int i = 0; i < frames; i++) {
+                if (valid[i]) {
+                    QuoteProtocol.writeResponse(out, connection.requestIds[i], QuoteProtocol.STATUS_OK,
+                                                batch.monthlyPayment[i], batch.totalPayment[i],
+                                                batch.totalInterest[i], batch.effectiveRate[i]);
+                } else {
+                    QuoteProtocol.writeResponse(out, connection.requestIds[i], QuoteProtocol.STATUS_INVALID,
+                                                Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+                }
+            }
+            out.flip();
+        }
+        
+        private void flush(SelectionKey key, Connection connection) throws IOException {
+            ByteBuffer out = connection.out;
+            if (out.hasRemaining()) {
+                connection.channel.write(out);
+            }
+            // Keep reading only while there is room for another full batch of responses
+            boolean backlog = out.hasRemaining();
+            boolean roomForResponses = WRITE_BUFFER_BYTES - out.remaining() >= QuoteProtocol.RESPONSE_FRAME;
+            int ops = (backlog ? SelectionKey.OP_WRITE : 0) | (roomForResponses ? SelectionKey.OP_READ : 0);
+            key.interestOps(ops);
+            
+            // Requests may be waiting in the input buffer after a backpressure pause
+            if (roomForResponses && connection.in.position() >= QuoteProtocol.REQUEST_FRAME && !backlog) {
+                process(connection);
+                if (connection.out.hasRemaining()) {
+                    flush(key, connection);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package loancalculator;
+
+/**
+ * Inverts the annuity formula: finds the rate at which a principal amortizes
+ * to a given level payment over a term. Each solve runs Newton's method on
+ * the analytic derivative, falling back to bisection whenever a step would
+ * leave the current bracket, so it converges in a handful of iterations and
+ * can never diverge.
+ *
+ * APR with fees is the same inversion: the payment stays at the note-rate
+ * payment on the full principal, but the borrower only receives the
+ * principal net of fees.
+ *
+ * A solver keeps running iteration statistics and is not thread-safe; use one
+ * instance per thread.
+ */
+public final class RateSolver {
+    public static final double DEFAULT_TOLERANCE = 1e-12;
+    public static final int DEFAULT_MAX_ITERATIONS = 50;
+    private static final double ZERO_RATE_SLACK = 1e-6;
+    
+    private final double tolerance;
+    private final int maxIterations;
+    
+    private long solves;
+    private long totalIterations;
+    private int worstIterations;
+    private long failures;
+    
+    /**
+     * Iteration counts collected over a solver's lifetime.
+     */
+    public static class SolverStats {
+        public final long solves;
+        public final long totalIterations;
+        public final int worstIterations;
+        public final long failures;
+        
+        SolverStats(long solves, long totalIterations, int worstIterations, long failures) {
+            this.solves = solves;
+            this.totalIterations = totalIterations;
+            this.worstIterations = worstIterations;
+            this.failures = failures;
+        }
+        
+        public double getAverageIterations() {
+            return solves == 0 ? 0 : (double) totalIterations / solves;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("solves=%d, avg iterations=%.2f, worst=%d, failures=%d",
+                                 solves, getAverageIterations(), worstIterations, failures);
+        }
+    }
+    
+    public RateSolver() {
+        this(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+    
+    /**
+     * @param tolerance     relative tolerance on the payment and on the rate step
+     * @param maxIterations iteration cap per solve; the loan is reported as failed beyond it
+     */
+    public RateSolver(double tolerance, int maxIterations) {
+        if (tolerance <= 0 || maxIterations <= 0) {
+            throw new IllegalArgumentException("Tolerance and iteration cap must be positive");
+        }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+    
+    /**
+     * Annual rate (as a fraction, 12 x monthly) at which {@code principal}
+     * is repaid by {@code termMonths} payments of {@code monthlyPayment}.
+     * Returns NaN when no non-negative rate does it or the solve fails.
+     */
+    public double solveAnnualRate(double principal, double monthlyPayment, int termMonths) {
+        return solve(principal, monthlyPayment, termMonths);
+    }
+    
+    /**
+     * APR of a loan at {@code annualRate} whose {@code fees} are deducted
+     * from the amount the borrower receives.
+     */
+    public double calculateApr(double principal, double annualRate, int termMonths, double fees) {
+        double payment = LoanCalculatorUtils.calculateMonthlyPayment(principal, annualRate, termMonths);
+        return solveAnnualRate(principal - fees, payment, termMonths);
+    }
+    
+    /**
+     * Solves a range of loans held in parallel arrays. {@code iterations}
+     * may be null; otherwise it receives the iteration count of each loan.
+     */
+    public void solveAnnualRates(double[] principals, double[] monthlyPayments, int[] termMonths,
+                                 double[] annualRates, int[] iterations, int from, int to) {
+        for (int i = from; i < to; i++) {
+            long before = totalIterations;
+            annualRates[i] = solveAnnualRate(principals[i], monthlyPayments[i], termMonths[i]);
+            if (iterations != null) {
+                iterations[i] = (int) (totalIterations - before);
+            }
+        }
+    }
+    
+    public void calculateAprs(double[] principals, double[] annualRates, int[] termMonths, double[] fees,
+                              double[] aprs, int from, int to) {
+        for (int i = from; i < to; i++) {
+            aprs[i] = calculateApr(principals[i], annualRates[i], termMonths[i], fees[i]);
+        }
+    }
+    
+    public SolverStats getStats() {
+        return new SolverStats(solves, totalIterations, worstIterations, failures);
+    }
+    
+    private double solve(double principal, double payment, int n) {
+        solves++;
+        if (!(principal > 0) || !(payment > 0) || n <= 0) {
+            failures++;
+            return Double.NaN;
+        }
+        double target = payment / principal;
+        double floor = 1.0 / n;
+        if (target <= floor * (1 + tolerance)) {
+            // Payments computed at a near-zero rate can land a hair under P/n
+            // from rounding in the annuity formula; treat those as interest-free.
+            if (target >= floor * (1 - ZERO_RATE_SLACK)) {
+                record(0);
+                return 0.0;
+            }
+            failures++;
+            return Double.NaN;
+        }
+        
+        // Bracket: A(r) = r / (1 - (1+r)^-n) increases from 1/n, and A(r) > r,
+        // so the root lies in (0, target].
+        double lo = 0;
+        double hi = target;
+        double r = Math.min(2 * (n * target - 1) / (n + 1), hi);
+        
+        for (int iteration = 1; iteration <= maxIterations; iteration++) {
+            // expm1/log1p keep 1 - (1+r)^-n accurate when r is tiny
+            double logGrowth = -n * Math.log1p(r);
+            double q = Math.exp(logGrowth);
+            double oneMinusQ = -Math.expm1(logGrowth);
+            double a = r / oneMinusQ;
+            double f = a - target;
+            
+            if (Math.abs(f) <= tolerance * target) {
+                record(iteration);
+                return r * 12;
+            }
+            if (f > 0) {
+                hi = r;
+            } else {
+                lo = r;
+            }
+            
+            double derivative = (oneMinusQ - r * n * q / (1 + r)) / (oneMinusQ * oneMinusQ);
+            double next = r - f / derivative;
+            if (!(next > lo && next < hi)) {
+                next = 0.5 * (lo + hi);
+            }
+            if (Math.abs(next - r) <= tolerance * r) {
+                record(iteration);
+                return next * 12;
+            }
+            r = next;
+        }
+        
+        failures++;
+        record(maxIterations);
+        return Double.NaN;
+    }
+    
+    private void record(int iterations) {
+        totalIterations += iterations;
+        if (iterations > worstIterations) {
+            worstIterations = iterations;
+        }
+    }
+}
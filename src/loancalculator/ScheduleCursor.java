@@ -0,0 +1,94 @@
+package loancalculator;
+
+/**
+ * Forward-only cursor over a range of an {@link AmortizationSchedule}. Values
+ * are exposed as primitives through getters, so walking a schedule allocates
+ * nothing. The cursor is seeded with the closed-form balance at its first
+ * period and then steps the balance forward one payment at a time.
+ *
+ * <pre>
+ * ScheduleCursor cursor = schedule.cursor();
+ * while (cursor.next()) {
+ *     total += cursor.getInterest();
+ * }
+ * </pre>
+ */
+public final class ScheduleCursor {
+    private final AmortizationSchedule schedule;
+    private final double monthlyRate;
+    private final double payment;
+    private int period;
+    private int endPeriod;
+    private double balance;
+    private double interest;
+    private double principalPaid;
+    
+    ScheduleCursor(AmortizationSchedule schedule, int fromPeriod, int toPeriod) {
+        if (fromPeriod < 1 || toPeriod > schedule.getTermMonths() || fromPeriod > toPeriod + 1) {
+            throw new IllegalArgumentException("Invalid period range " + fromPeriod + ".." + toPeriod);
+        }
+        this.schedule = schedule;
+        this.monthlyRate = schedule.getMonthlyRate();
+        this.payment = schedule.getMonthlyPayment();
+        this.period = fromPeriod - 1;
+        this.endPeriod = toPeriod;
+        this.balance = schedule.balanceAfter(fromPeriod - 1);
+    }
+    
+    /**
+     * Moves to the next period; returns false once the range is exhausted.
+     */
+    public boolean next() {
+        if (period >= endPeriod) {
+            return false;
+        }
+        period++;
+        interest = balance * monthlyRate;
+        principalPaid = payment - interest;
+        balance -= principalPaid;
+        if (period == schedule.getTermMonths() || balance < 0) {
+            balance = 0;
+        }
+        return true;
+    }
+    
+    public int getPeriod() {
+        return period;
+    }
+    
+    public double getPayment() {
+        return payment;
+    }
+    
+    public double getInterest() {
+        return interest;
+    }
+    
+    public double getPrincipal() {
+        return principalPaid;
+    }
+    
+    public double getBalance() {
+        return balance;
+    }
+    
+    int remaining() {
+        return endPeriod - period;
+    }
+    
+    /**
+     * Cuts the remaining range in half, keeping the first half, and returns a
+     * cursor for the second half seeded from the closed-form balance. Returns
+     * null if fewer than two periods remain.
+     */
+    ScheduleCursor split() {
+        int remaining = endPeriod - period;
+        if (remaining < 2) {
+            return null;
+        }
+        int mid = period + remaining / 2;
+        ScheduleCursor upper = new ScheduleCursor(schedule, mid + 1, endPeriod);
+        endPeriod = mid;
+        return upper;
+    }
+}
@@ -0,0 +1,133 @@
+package loancalculator;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Lazy, splittable spliterators over an amortization schedule. A split hands
+ * the first half of the remaining periods to a new spliterator and re-seeds
+ * the current one from the closed-form balance at the midpoint, so a parallel
+ * stream divides a long schedule by period range without walking the prefix.
+ */
+final class ScheduleSpliterators {
+    static final int INTEREST = 0;
+    static final int PRINCIPAL = 1;
+    static final int BALANCE = 2;
+    
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED
+        | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+    private static final int MIN_SPLIT = 64;
+    
+    private ScheduleSpliterators() {
+    }
+    
+    private abstract static class Base {
+        protected ScheduleCursor cursor;
+        
+        Base(ScheduleCursor cursor) {
+            this.cursor = cursor;
+        }
+        
+        protected ScheduleCursor splitPrefix() {
+            if (cursor.remaining() < MIN_SPLIT * 2) {
+                return null;
+            }
+            ScheduleCursor prefix = cursor;
+            ScheduleCursor suffix = prefix.split();
+            if (suffix == null) {
+                return null;
+            }
+            cursor = suffix;
+            return prefix;
+        }
+        
+        public long estimateSize() {
+            return cursor.remaining();
+        }
+        
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+    
+    static final class Rows extends Base implements Spliterator<AmortizationSchedule.Row> {
+        Rows(ScheduleCursor cursor) {
+            super(cursor);
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super AmortizationSchedule.Row> action) {
+            if (!cursor.next()) {
+                return false;
+            }
+            action.accept(row(cursor));
+            return true;
+        }
+        
+        @Override
+        public void forEachRemaining(Consumer<? super AmortizationSchedule.Row> action) {
+            ScheduleCursor c = cursor;
+            while (c.next()) {
+                action.accept(row(c));
+            }
+        }
+        
+        @Override
+        public Rows trySplit() {
+            ScheduleCursor prefix = splitPrefix();
+            return prefix == null ? null : new Rows(prefix);
+        }
+        
+        private static AmortizationSchedule.Row row(ScheduleCursor c) {
+            return new AmortizationSchedule.Row(c.getPeriod(), c.getPayment(), c.getInterest(),
+                                                c.getPrincipal(), c.getBalance());
+        }
+    }
+    
+    /**
+     * Primitive spliterator over a single schedule column.
+     */
+    static final class Column extends Base implements Spliterator.OfDouble {
+        private final int column;
+        
+        Column(ScheduleCursor cursor, int column) {
+            super(cursor);
+            this.column = column;
+        }
+        
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (!cursor.next()) {
+                return false;
+            }
+            action.accept(value(cursor));
+            return true;
+        }
+        
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            ScheduleCursor c = cursor;
+            while (c.next()) {
+                action.accept(value(c));
+            }
+        }
+        
+        @Override
+        public Column trySplit() {
+            ScheduleCursor prefix = splitPrefix();
+            return prefix == null ? null : new Column(prefix, column);
+        }
+        
+        private double value(ScheduleCursor c) {
+            switch (column) {
+                case INTEREST:
+                    return c.getInterest();
+                case PRINCIPAL:
+                    return c.getPrincipal();
+                default:
+                    return c.getBalance();
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package loancalculator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versioned schema migrations. Each migration is applied once, in version
+ * order, inside its own transaction, and recorded in {@code schema_version}
+ * with a SHA-256 checksum of its SQL. Startup refuses to continue if an
+ * applied migration has since been edited, so released migrations must never
+ * change; add a new one instead.
+ *
+ * The runner holds a PostgreSQL session advisory lock while it works, so
+ * several instances starting against the same database apply each migration
+ * exactly once and the later ones simply find nothing to do.
+ */
+public final class SchemaMigrator {
+    // "LOANCALC" in ASCII, shared by every instance of the application
+    private static final long MIGRATION_LOCK_KEY = 0x4C4F414E43414C43L;
+    
+    static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "Create users and loan_calculations", """
+            CREATE TABLE IF NOT EXISTS users (
+                id SERIAL PRIMARY KEY,
+                username VARCHAR(50) UNIQUE NOT NULL,
+                password_hash VARCHAR(64) NOT NULL,
+                email VARCHAR(100) NOT NULL,
+                full_name VARCHAR(100) NOT NULL,
+                profile_pic BYTEA,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            );
+            CREATE TABLE IF NOT EXISTS loan_calculations (
+                id SERIAL PRIMARY KEY,
+                user_id INTEGER REFERENCES users(id),
+                principal DECIMAL(15,2) NOT NULL,
+                annual_rate DECIMAL(5,4) NOT NULL,
+                term_months INTEGER NOT NULL,
+                monthly_payment DECIMAL(15,2) NOT NULL,
+                total_payment DECIMAL(15,2) NOT NULL,
+                total_interest DECIMAL(15,2) NOT NULL,
+                calculation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            );
+            """),
+        new Migration(2, "Index users by LOWER(username) for login and profile lookups", """
+            CREATE INDEX IF NOT EXISTS idx_users_username_lower ON users (LOWER(username));
+            """),
+        new Migration(3, "Index loan_calculations for per-user history pages", """
+            CREATE INDEX IF NOT EXISTS idx_loan_calculations_history 
+            ON loan_calculations (user_id, calculation_date DESC, id DESC);
+            """),
+        new Migration(4, "Track a content hash of each profile picture", """
+            ALTER TABLE users ADD COLUMN IF NOT EXISTS profile_pic_hash CHAR(64);
+            UPDATE users SET profile_pic_hash = encode(sha256(profile_pic), 'hex') 
+            WHERE profile_pic IS NOT NULL AND profile_pic_hash IS NULL;
+            """)
+    );
+    
+    private SchemaMigrator() {
+    }
+    
+    /**
+     * Brings the schema up to the latest migration and returns how many
+     * migrations were applied. The connection's network timeout is lifted
+     * while this runs: waiting for another instance's lock, building an index
+     * or backfilling hashes can all take longer than a normal query.
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        int networkTimeout = conn.getNetworkTimeout();
+        conn.setNetworkTimeout(Runnable::run, 0);
+        try {
+            return migrateLocked(conn);
+        } finally {
+            conn.setNetworkTimeout(Runnable::run, networkTimeout);
+        }
+    }
+    
+    private static int migrateLocked(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SELECT pg_advisory_lock(" + MIGRATION_LOCK_KEY + ")");
+        }
+        try {
+            createVersionTable(conn);
+            Map<Integer, String> applied = appliedChecksums(conn);
+            
+            int count = 0;
+            for (Migration migration : MIGRATIONS) {
+                String recorded = applied.get(migration.version);
+                if (recorded == null) {
+                    apply(conn, migration);
+                    count++;
+                } else if (!recorded.equals(migration.checksum)) {
+                    throw new SQLException("Migration " + migration.version + " (" + migration.description
+                        + ") was changed after it was applied; expected checksum " + recorded
+                        + " but found " + migration.checksum);
+                }
+            }
+            return count;
+        } finally {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SELECT pg_advisory_unlock(" + MIGRATION_LOCK_KEY + ")");
+            }
+        }
+    }
+    
+    public static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+    
+    private static void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    description VARCHAR(200) NOT NULL,
+                    checksum CHAR(64) NOT NULL,
+                    execution_ms INTEGER NOT NULL,
+                    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+        }
+    }
+    
+    private static Map<Integer, String> appliedChecksums(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+        return applied;
+    }
+    
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(migration.sql);
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)")) {
+                pstmt.setInt(1, migration.version);
+                pstmt.setString(2, migration.description);
+                pstmt.setString(3, migration.checksum);
+                pstmt.setInt(4, (int) ((System.nanoTime() - start) / 1_000_000));
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+            System.out.println("Applied migration " + migration.version + ": " + migration.description);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Migration " + migration.version + " failed: " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+    
+    static String checksum(String sql) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sql.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    static final class Migration {
+        final int version;
+        final String description;
+        final String sql;
+        final String checksum;
+        
+        Migration(int version, String description, String sql) {
+            this.version = version;
+            this.description = description;
+            this.sql = sql;
+            this.checksum = checksum(sql);
+        }
+    }
+}
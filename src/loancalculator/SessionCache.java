@@ -0,0 +1,33 @@
+package loancalculator;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory cache of signed-in users, keyed by user id. Entries are added at
+ * login and removed at logout. Profile picture writes go through
+ * {@link #profilePictureChanged} so open windows see the new picture's hash
+ * without another query.
+ */
+public final class SessionCache {
+    private static final ConcurrentMap<Integer, UserSession> SESSIONS = new ConcurrentHashMap<>();
+    
+    private SessionCache() {
+    }
+    
+    public static void put(UserSession session) {
+        SESSIONS.put(session.getUserId(), session);
+    }
+    
+    public static void invalidate(int userId) {
+        SESSIONS.remove(userId);
+    }
+    
+    static void profilePictureChanged(String username, String profilePictureHash) {
+        for (UserSession session : SESSIONS.values()) {
+            if (session.getUsername().equalsIgnoreCase(username)) {
+                session.setProfilePictureHash(profilePictureHash);
+            }
+        }
+    }
+}
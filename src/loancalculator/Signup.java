@@ -14,6 +14,7 @@ public class Signup extends JFrame {
     private JTextField fullNameField;
     private JButton signupButton;
     private JButton backButton;
+    private final WindowTasks tasks = new WindowTasks(this);
     
     public Signup() {
         initializeComponents();
@@ -110,6 +111,8 @@ public class Signup extends JFrame {
                 goBackToLogin();
             }
         });
+        
+        tasks.onBusyChanged(busy -> signupButton.setEnabled(!busy));
     }
     
     private void handleSignup() {
@@ -150,14 +153,21 @@ public class Signup extends JFrame {
             return;
         }
         
-        if (Database.registerUser(username, password, email, fullName)) {
-            JOptionPane.showMessageDialog(this, "Account created successfully!\nYou can now login.", 
-                                        "Registration Successful", JOptionPane.INFORMATION_MESSAGE);
-            goBackToLogin();
-        } else {
-            JOptionPane.showMessageDialog(this, "Registration failed!\nUsername might already exist.", 
-                                        "Registration Failed", JOptionPane.ERROR_MESSAGE);
+        if (tasks.isBusy()) {
+            return;
         }
+        
+        tasks.run(AsyncDatabase.registerUser(username, password, email, fullName), registered -> {
+            if (registered) {
+                JOptionPane.showMessageDialog(this, "Account created successfully!\nYou can now login.", 
+                                            "Registration Successful", JOptionPane.INFORMATION_MESSAGE);
+                goBackToLogin();
+            } else {
+                JOptionPane.showMessageDialog(this, "Registration failed!\nUsername might already exist.", 
+                                            "Registration Failed", JOptionPane.ERROR_MESSAGE);
+            }
+        }, error -> JOptionPane.showMessageDialog(this, "Registration failed: " + error.getMessage(), 
+                                                  "Registration Failed", JOptionPane.ERROR_MESSAGE));
     }
     
     private boolean isValidEmail(String email) {
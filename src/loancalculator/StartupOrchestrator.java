@@ -0,0 +1,183 @@
+package loancalculator;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Desktop startup. The login window is built and shown on the EDT straight
+ * away while the JDBC driver, the schema migrations and the calculation code
+ * are loaded in parallel in the background; database calls made from the UI
+ * wait for the migrations through {@link Database#awaitInitialization()}.
+ *
+ * Two times are reported, both measured from process start: first frame (the
+ * login window has been opened and painted) and interactive (first frame plus
+ * every background step finished, so the first login runs at full speed).
+ */
+final class StartupOrchestrator {
+    // Set by the runtime image's AppCDS training run (build.xml): exit once startup is
+    // complete, so the archive holds the classes a real start loads
+    private static final boolean TRAINING = Boolean.getBoolean("loancalculator.startup.training");
+    
+    private final long processStartMillis = ProcessHandle.current().info().startInstant()
+                                                         .map(Instant::toEpochMilli)
+                                                         .orElse(System.currentTimeMillis());
+    private final long mainEntryMillis = System.currentTimeMillis();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CompletableFuture<Long> firstFrame = new CompletableFuture<>();
+    
+    private StartupOrchestrator() {
+    }
+    
+    static void launch() {
+        new StartupOrchestrator().run();
+    }
+    
+    private void run() {
+        CompletableFuture<Long> driver = timed(() -> {
+            Class.forName("org.postgresql.Driver");
+            return null;
+        });
+        CompletableFuture<Long> database = timed(() -> {
+            if (TRAINING) {
+                // A build must never migrate a live database; connecting is enough to archive the driver
+                Database.verifyConnection();
+            } else {
+                Database.initializeDatabaseAsync(executor).join();
+            }
+            return null;
+        });
+        CompletableFuture<Long> warmup = timed(() -> {
+            warmUpCalculations();
+            return null;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(Database::shutdown, "db-shutdown"));
+        
+        SwingUtilities.invokeLater(this::showLogin);
+        
+        CompletableFuture.allOf(firstFrame, driver, database, warmup).whenComplete((ignored, error) -> {
+            System.out.printf("Startup: first frame %d ms, interactive %d ms "
+                              + "(JVM %d ms before main; driver %d ms, database %d ms, warm-up %d ms in parallel)%n",
+                              firstFrame.join(), sinceProcessStart(), mainEntryMillis - processStartMillis,
+                              driver.getNow(-1L), database.getNow(-1L), warmup.getNow(-1L));
+            executor.shutdown();
+            if (TRAINING) {
+                SwingUtilities.invokeLater(StartupOrchestrator::finishTraining);
+            }
+        });
+    }
+    
+    private void showLogin() {
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        
+        if (TRAINING && GraphicsEnvironment.isHeadless()) {
+            renderOffscreen();
+            firstFrame.complete(sinceProcessStart());
+            return;
+        }
+        
+        Login login = new Login();
+        login.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                // Queued behind the paint events for the newly opened window
+                SwingUtilities.invokeLater(() -> firstFrame.complete(sinceProcessStart()));
+            }
+        });
+        login.setVisible(true);
+    }
+    
+    private static void finishTraining() {
+        try {
+            // Loaded without logging in, so the archive also covers the main window's own classes
+            Class.forName("loancalculator.LoanCalculator");
+        } catch (ClassNotFoundException e) {
+            e.printStackTrace();
+        }
+        for (Window window : Window.getWindows()) {
+            window.dispose();
+        }
+        System.exit(0);
+    }
+    
+    // Headless build machines cannot open the login window, so lay out and paint the
+    // same kinds of components into an image to load their UI delegates and fonts
+    private static void renderOffscreen() {
+        JPanel form = new JPanel(new GridLayout(0, 2, 10, 10));
+        form.setBorder(BorderFactory.createTitledBorder("Login"));
+        form.add(new JLabel("Username:"));
+        form.add(new JTextField(15));
+        form.add(new JLabel("Password:"));
+        form.add(new JPasswordField(15));
+        form.add(new JButton("Login"));
+        form.add(new JComboBox<>(new String[] {"Years", "Months"}));
+        form.add(new JScrollPane(new JTextArea(15, 45)));
+        form.add(new JScrollPane(new JTable(
+            new AmortizationTableModel(LoanCalculatorUtils.schedule(250_000, 0.045, 360)))));
+        form.setSize(form.getPreferredSize());
+        form.validate();
+        
+        BufferedImage image = new BufferedImage(form.getWidth(), form.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            form.printAll(g);
+        } finally {
+            g.dispose();
+        }
+    }
+    
+    // Loads and JIT-primes what a calculation in the main window runs (the quote, the schedule rows
+    // and the details table) so the first one after login is not the slow one. The synthetic loans
+    // are then cleared from the annuity-factor cache, so they neither occupy it nor show up in the
+    // hit ratio /api/stats reports
+    private static void warmUpCalculations() {
+        double checksum = 0;
+        for (int i = 0; i < 2_000; i++) {
+            double principal = 10_000 + i * 50;
+            double annualRate = 0.01 + (i % 100) / 1_000.0;
+            int termMonths = 12 + i % 360;
+            
+            LoanCalculatorUtils.LoanResult loan = LoanCalculatorUtils.calculateLoan(principal, annualRate, termMonths);
+            AmortizationSchedule schedule = LoanCalculatorUtils.schedule(principal, annualRate, termMonths);
+            checksum += loan.totalInterest + schedule.interestPortion(1) + schedule.principalPortion(termMonths)
+                        + schedule.balanceAfter(termMonths / 2);
+            if (i % 20 == 0) {
+                AmortizationTableModel table = new AmortizationTableModel(schedule);
+                for (int row = 0; row < Math.min(termMonths, 40); row++) {
+                    table.getValueAt(row, 4);
+                }
+            }
+        }
+        LoanCalculatorUtils.getAnnuityFactorCache().clear();
+        if (Double.isNaN(checksum)) {
+            System.err.println("Calculation warm-up produced NaN");
+        }
+    }
+    
+    private long sinceProcessStart() {
+        return System.currentTimeMillis() - processStartMillis;
+    }
+    
+    private CompletableFuture<Long> timed(java.util.concurrent.Callable<Void> step) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                step.call();
+            } catch (Exception e) {
+                System.err.println("Startup step failed: " + e);
+            }
+            return Duration.ofNanos(System.nanoTime() - start).toMillis();
+        }, executor);
+    }
+}
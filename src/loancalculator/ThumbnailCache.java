@@ -0,0 +1,138 @@
+package loancalculator;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rendered profile thumbnails keyed by username, picture content hash and
+ * size. Recently used thumbnails stay in an in-memory LRU; every thumbnail is
+ * also written as a small PNG under {@code user_images/} so a fresh start only
+ * decodes a 120-pixel file. Because the key includes the content hash, a
+ * changed picture simply misses, and older files for the same user are
+ * removed when a new one is stored.
+ */
+final class ThumbnailCache {
+    private static final int MEMORY_ENTRIES = 32;
+    private static final Path DIRECTORY = Paths.get("user_images");
+    
+    private static final Map<String, BufferedImage> MEMORY = new LinkedHashMap<>(MEMORY_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+            return size() > MEMORY_ENTRIES;
+        }
+    };
+    
+    private ThumbnailCache() {
+    }
+    
+    /**
+     * Current thumbnail for the user, rendering it from the stored picture
+     * only when neither cache holds one for {@code pictureHash}. Returns null
+     * when the user has no picture. Runs JDBC and image work, so call it off
+     * the event dispatch thread.
+     */
+    static BufferedImage load(String username, String pictureHash, int size) throws IOException {
+        if (pictureHash == null) {
+            return null;
+        }
+        BufferedImage thumbnail = get(username, pictureHash, size);
+        if (thumbnail == null) {
+            BufferedImage picture = Database.getProfilePicture(username);
+            if (picture == null) {
+                return null;
+            }
+            thumbnail = ProfileImages.renderThumbnail(picture, size);
+            put(username, pictureHash, size, thumbnail);
+        }
+        return thumbnail;
+    }
+    
+    static BufferedImage get(String username, String pictureHash, int size) {
+        String key = key(username, pictureHash, size);
+        synchronized (MEMORY) {
+            BufferedImage cached = MEMORY.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        File file = DIRECTORY.resolve(key + ".png").toFile();
+        if (file.isFile()) {
+            try {
+                BufferedImage image = ImageIO.read(file);
+                if (image != null) {
+                    synchronized (MEMORY) {
+                        MEMORY.put(key, image);
+                    }
+                    return image;
+                }
+            } catch (IOException e) {
+                System.err.println("Discarding unreadable thumbnail " + file + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+    
+    static void put(String username, String pictureHash, int size, BufferedImage thumbnail) {
+        String key = key(username, pictureHash, size);
+        String prefix = prefix(username);
+        synchronized (MEMORY) {
+            MEMORY.keySet().removeIf(cached -> cached.startsWith(prefix));
+            MEMORY.put(key, thumbnail);
+        }
+        try {
+            Files.createDirectories(DIRECTORY);
+            removeFiles(username, key);
+            Path temp = Files.createTempFile(DIRECTORY, "thumb", ".tmp");
+            ImageIO.write(thumbnail, "png", temp.toFile());
+            Files.move(temp, DIRECTORY.resolve(key + ".png"), StandardCopyOption.REPLACE_EXISTING, 
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to write thumbnail cache: " + e.getMessage());
+        }
+    }
+    
+    static void invalidate(String username) {
+        String prefix = prefix(username);
+        synchronized (MEMORY) {
+            MEMORY.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+        try {
+            removeFiles(username, null);
+        } catch (IOException e) {
+            System.err.println("Failed to clear thumbnail cache: " + e.getMessage());
+        }
+    }
+    
+    private static void removeFiles(String username, String keep) throws IOException {
+        if (!Files.isDirectory(DIRECTORY)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DIRECTORY, prefix(username) + "*.png")) {
+            for (Path file : files) {
+                if (keep == null || !file.getFileName().toString().equals(keep + ".png")) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+    
+    private static String key(String username, String pictureHash, int size) {
+        return prefix(username) + pictureHash.substring(0, Math.min(16, pictureHash.length())) + "_" + size;
+    }
+    
+    // Usernames go into file names, so anything outside a safe set is replaced;
+    // the dots can then only be separators, keeping one user's prefix from matching another's
+    private static String prefix(String username) {
+        return "thumb." + username.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_-]", "_") + ".";
+    }
+}
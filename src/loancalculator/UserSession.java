@@ -0,0 +1,47 @@
+package loancalculator;
+
+/**
+ * The signed-in user's profile, loaded once at login and held by
+ * {@link SessionCache}. Windows read the user's details from here instead of
+ * querying {@code users} again. The profile picture itself is not held here,
+ * only the hash that keys its cached thumbnail in {@link ThumbnailCache}.
+ */
+public final class UserSession {
+    private final int userId;
+    private final String username;
+    private final String fullName;
+    private final String email;
+    private volatile String profilePictureHash;
+    
+    public UserSession(int userId, String username, String fullName, String email, String profilePictureHash) {
+        this.userId = userId;
+        this.username = username;
+        this.fullName = fullName;
+        this.email = email;
+        this.profilePictureHash = profilePictureHash;
+    }
+    
+    public int getUserId() {
+        return userId;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public String getFullName() {
+        return fullName;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public String getProfilePictureHash() {
+        return profilePictureHash;
+    }
+    
+    void setProfilePictureHash(String profilePictureHash) {
+        this.profilePictureHash = profilePictureHash;
+    }
+}
@@ -0,0 +1,95 @@
+package loancalculator;
+
+import javax.swing.SwingUtilities;
+import java.awt.Cursor;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Background work owned by one window. Results and errors are delivered on
+ * the event dispatch thread, the window shows a wait cursor while anything is
+ * outstanding, and closing the window cancels whatever is still running so no
+ * callback ever touches a disposed window. Use only from the EDT.
+ */
+public class WindowTasks {
+    private final Window window;
+    private final Set<CompletableFuture<?>> pending = new HashSet<>();
+    private Consumer<Boolean> busyListener = busy -> { };
+    private boolean closed;
+    
+    public WindowTasks(Window window) {
+        this.window = window;
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                cancelAll();
+            }
+        });
+    }
+    
+    /**
+     * Called on the EDT with true when the first task starts and false when
+     * the last one finishes.
+     */
+    public void onBusyChanged(Consumer<Boolean> listener) {
+        this.busyListener = listener;
+    }
+    
+    public boolean isBusy() {
+        return !pending.isEmpty();
+    }
+    
+    public <T> CompletableFuture<T> run(CompletableFuture<T> future, Consumer<? super T> onSuccess, 
+                                        Consumer<Throwable> onError) {
+        if (closed) {
+            future.cancel(true);
+            return future;
+        }
+        pending.add(future);
+        if (pending.size() == 1) {
+            setBusy(true);
+        }
+        future.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+            if (!pending.remove(future) || closed) {
+                return;
+            }
+            if (pending.isEmpty()) {
+                setBusy(false);
+            }
+            Throwable cause = unwrap(error);
+            if (cause == null) {
+                onSuccess.accept(value);
+            } else if (!(cause instanceof CancellationException)) {
+                onError.accept(cause);
+            }
+        }));
+        return future;
+    }
+    
+    public void cancelAll() {
+        closed = true;
+        for (CompletableFuture<?> future : pending) {
+            future.cancel(true);
+        }
+        if (!pending.isEmpty()) {
+            pending.clear();
+            setBusy(false);
+        }
+    }
+    
+    private void setBusy(boolean busy) {
+        window.setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+        busyListener.accept(busy);
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}